@@ -0,0 +1,112 @@
+package net.raphimc.viaproxy.gradle
+
+import groovy.json.JsonSlurper
+import org.gradle.api.DefaultTask
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.InputDirectory
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.api.tasks.TaskAction
+
+/**
+ * Compiles json mapping data into the binary format read by net.raphimc.viaproxy.protocoltranslator.impl.MappingDataReader.
+ */
+abstract class CompileMappingDataTask extends DefaultTask {
+
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    abstract DirectoryProperty getSourceDirectory()
+
+    /**
+     * The names of the json files (without extension) which should be compiled.
+     */
+    @Input
+    abstract ListProperty<String> getMappingDataNames()
+
+    @OutputDirectory
+    abstract DirectoryProperty getOutputDirectory()
+
+    @TaskAction
+    void compile() {
+        def outputDir = this.outputDirectory.get().asFile
+        outputDir.deleteDir()
+        outputDir.mkdirs()
+        this.mappingDataNames.get().each { name ->
+            def file = new File(this.sourceDirectory.get().asFile, name + ".json")
+            def json = new JsonSlurper().parse(file)
+            def strings = new LinkedHashMap<String, Integer>()
+            collectStrings(json, strings)
+
+            def data = new ByteArrayOutputStream()
+            def out = new DataOutputStream(data)
+            out.writeInt(0x56504D44) // VPMD
+            out.writeByte(1)
+            writeVarInt(out, strings.size())
+            strings.keySet().each { string ->
+                def bytes = string.getBytes("UTF-8")
+                writeVarInt(out, bytes.length)
+                out.write(bytes)
+            }
+            writeValue(out, json, strings)
+            out.flush()
+
+            new File(outputDir, name + ".bin").bytes = data.toByteArray()
+        }
+    }
+
+    private static void collectStrings(Object value, Map<String, Integer> strings) {
+        if (value instanceof Map) {
+            value.each { k, v ->
+                strings.putIfAbsent(k as String, strings.size())
+                collectStrings(v, strings)
+            }
+        } else if (value instanceof List) {
+            value.each { collectStrings(it, strings) }
+        } else if (value instanceof String) {
+            strings.putIfAbsent(value, strings.size())
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value, Map<String, Integer> strings) {
+        if (value == null) {
+            out.writeByte(0)
+        } else if (value instanceof Boolean) {
+            out.writeByte(value ? 2 : 1)
+        } else if (value instanceof Integer || (value instanceof Long && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)) {
+            out.writeByte(3)
+            int i = value as int
+            writeVarInt(out, (i << 1) ^ (i >> 31))
+        } else if (value instanceof Number) {
+            out.writeByte(4)
+            out.writeDouble(value as double)
+        } else if (value instanceof String) {
+            out.writeByte(5)
+            writeVarInt(out, strings.get(value))
+        } else if (value instanceof List) {
+            out.writeByte(6)
+            writeVarInt(out, value.size())
+            value.each { writeValue(out, it, strings) }
+        } else if (value instanceof Map) {
+            out.writeByte(7)
+            writeVarInt(out, value.size())
+            value.each { k, v ->
+                writeVarInt(out, strings.get(k as String))
+                writeValue(out, v, strings)
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported json value: " + value.getClass())
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80)
+            value >>>= 7
+        }
+        out.writeByte(value)
+    }
+
+}
@@ -17,6 +17,7 @@
  */
 package net.raphimc.viaproxy;
 
+import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
@@ -37,7 +38,9 @@ import net.lenni0451.reflect.JavaBypass;
 import net.lenni0451.reflect.Methods;
 import net.raphimc.netminecraft.constants.MCPipeline;
 import net.raphimc.netminecraft.netty.connection.NetServer;
+import net.raphimc.netminecraft.util.TransportType;
 import net.raphimc.viaproxy.cli.ConsoleHandler;
+import net.raphimc.viaproxy.injection.CachingTransformerManager;
 import net.raphimc.viaproxy.plugins.PluginManager;
 import net.raphimc.viaproxy.plugins.events.Client2ProxyHandlerCreationEvent;
 import net.raphimc.viaproxy.plugins.events.ProxyStartEvent;
@@ -48,18 +51,16 @@ import net.raphimc.viaproxy.protocoltranslator.viaproxy.ViaProxyConfig;
 import net.raphimc.viaproxy.proxy.client2proxy.Client2ProxyChannelInitializer;
 import net.raphimc.viaproxy.proxy.client2proxy.Client2ProxyHandler;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.proxy.util.TransportUtil;
 import net.raphimc.viaproxy.saves.SaveManager;
 import net.raphimc.viaproxy.tasks.SystemRequirementsCheck;
 import net.raphimc.viaproxy.tasks.UpdateCheckTask;
-import net.raphimc.viaproxy.ui.SplashScreen;
-import net.raphimc.viaproxy.ui.ViaProxyWindow;
+import net.raphimc.viaproxy.ui.ViaProxyUI;
 import net.raphimc.viaproxy.util.AddressUtil;
 import net.raphimc.viaproxy.util.ClassLoaderPriorityUtil;
 import net.raphimc.viaproxy.util.JarUtil;
 import net.raphimc.viaproxy.util.logging.Logger;
 
-import javax.swing.*;
-import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.lang.instrument.Instrumentation;
@@ -68,6 +69,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
@@ -85,8 +87,7 @@ public class ViaProxy {
 
     private static Instrumentation instrumentation;
     private static NetServer currentProxyServer;
-    private static ViaProxyWindow viaProxyWindow;
-    private static JFrame foregroundWindow;
+    private static boolean useUI;
 
     public static void agentmain(final String args, final Instrumentation instrumentation) {
         ViaProxy.instrumentation = instrumentation;
@@ -94,7 +95,13 @@ public class ViaProxy {
 
     public static void main(String[] args) throws Throwable {
         final IClassProvider classProvider = new GuavaClassPathProvider();
-        final TransformerManager transformerManager = new TransformerManager(classProvider);
+        final TransformerManager transformerManager;
+        if (CachingTransformerManager.isEnabled() && !VERSION.startsWith("${")) {
+            final String runDir = System.getenv("VP_RUN_DIR") != null ? System.getenv("VP_RUN_DIR") : System.getProperty("user.dir");
+            transformerManager = new CachingTransformerManager(classProvider, new File(runDir, "cache/classes"), IMPL_VERSION);
+        } else {
+            transformerManager = new TransformerManager(classProvider);
+        }
         transformerManager.addTransformerPreprocessor(new MixinsTranslator());
         transformerManager.addTransformer("net.raphimc.viaproxy.injection.mixins.**");
         if (instrumentation != null) {
@@ -115,7 +122,7 @@ public class ViaProxy {
     }
 
     public static void injectedMain(final String injectionMethod, final String[] args) throws InterruptedException, IOException, InvocationTargetException {
-        final boolean useUI = args.length == 0 && !GraphicsEnvironment.isHeadless();
+        useUI = args.length == 0 && ViaProxyUI.isAvailable();
         final boolean useConfig = args.length == 2 && args[0].equals("config");
         final boolean useCLI = args.length > 0 && args[0].equals("cli");
 
@@ -155,7 +162,7 @@ public class ViaProxy {
         if (CWD != null) {
             System.setProperty("user.dir", CWD.getAbsolutePath());
         } else if (useUI) {
-            JOptionPane.showMessageDialog(null, "Could not find a suitable directory to use as working directory. Make sure that the current folder is writeable.", "ViaProxy", JOptionPane.ERROR_MESSAGE);
+            ViaProxyUI.showError("Could not find a suitable directory to use as working directory. Make sure that the current folder is writeable.");
             System.exit(1);
         } else {
             System.err.println("Could not find a suitable directory to use as working directory. Make sure that the current folder is writeable.");
@@ -189,21 +196,10 @@ public class ViaProxy {
             SystemRequirementsCheck.run(useUI);
         }
 
-        final SplashScreen splashScreen;
         final Consumer<String> progressConsumer;
         if (useUI) {
-            final float progressStep = 1F / 7F;
-            foregroundWindow = splashScreen = new SplashScreen();
-            progressConsumer = (text) -> {
-                splashScreen.setProgress(splashScreen.getProgress() + progressStep);
-                splashScreen.setText(text);
-            };
-            Thread.setDefaultUncaughtExceptionHandler((t, e) -> {
-                ViaProxyWindow.showException(e);
-                System.exit(1);
-            });
+            progressConsumer = ViaProxyUI.showSplashScreen(7);
         } else {
-            splashScreen = null;
             progressConsumer = text -> {
             };
         }
@@ -233,19 +229,12 @@ public class ViaProxy {
         }
         final boolean firstStart = !viaProxyConfigFile.exists();
         CONFIG = ViaProxyConfig.create(viaProxyConfigFile);
+        SAVE_MANAGER.accountsSave.startBackgroundRefresh();
+        ProtocolTranslator.startMappingLoading();
 
         if (useUI) {
             progressConsumer.accept("Loading GUI");
-            SwingUtilities.invokeAndWait(() -> {
-                try {
-                    foregroundWindow = viaProxyWindow = new ViaProxyWindow();
-                    progressConsumer.accept("Done");
-                    splashScreen.dispose();
-                } catch (Throwable e) {
-                    Logger.LOGGER.fatal("Failed to initialize UI", e);
-                    System.exit(1);
-                }
-            });
+            ViaProxyUI.openWindow(progressConsumer);
             if (System.getProperty("skipUpdateCheck") == null) {
                 CompletableFuture.runAsync(new UpdateCheckTask(true));
             }
@@ -271,6 +260,10 @@ public class ViaProxy {
             EVENT_MANAGER.call(new ViaProxyLoadedEvent());
             Logger.LOGGER.info("ViaProxy started successfully!");
             ViaProxy.startProxy();
+            if (System.getProperty("exitAfterStartup") != null) { // Used for training runs, for example to create an AppCDS archive
+                ViaProxy.stopProxy();
+                System.exit(0);
+            }
 
             Thread.sleep(Integer.MAX_VALUE);
         }
@@ -284,6 +277,9 @@ public class ViaProxy {
             Logger.LOGGER.info("Starting proxy server");
             currentProxyServer = new NetServer(new Client2ProxyChannelInitializer(() -> EVENT_MANAGER.call(new Client2ProxyHandlerCreationEvent(new Client2ProxyHandler(), false)).getHandler()));
             EVENT_MANAGER.call(new ProxyStartEvent());
+            final TransportType transportType = TransportUtil.getTransportType(CONFIG.getBindAddress());
+            Logger.LOGGER.info("Using " + transportType.name().toLowerCase(Locale.ROOT) + " transport");
+            currentProxyServer.initialize(transportType, new ServerBootstrap());
             Logger.LOGGER.info("Binding proxy server to " + AddressUtil.toString(CONFIG.getBindAddress()));
             currentProxyServer.bind(CONFIG.getBindAddress(), false);
         } catch (Throwable e) {
@@ -342,12 +338,13 @@ public class ViaProxy {
         return currentProxyServer;
     }
 
-    public static ViaProxyWindow getViaProxyWindow() {
-        return viaProxyWindow;
-    }
-
-    public static JFrame getForegroundWindow() {
-        return foregroundWindow;
+    /**
+     * The UI classes ({@link ViaProxyUI}) may only be used if this returns true.
+     *
+     * @return true if ViaProxy is running with a GUI
+     */
+    public static boolean hasUI() {
+        return useUI;
     }
 
 }
@@ -54,6 +54,7 @@ public class CommandManager implements CommandBuilder<CommandExecutor> {
     // Debugging commands
     private final GcCommand GcCommand = new GcCommand();
     private final ThreadDumpCommand ThreadDumpCommand = new ThreadDumpCommand();
+    private final MetricsCommand MetricsCommand = new MetricsCommand();
 
     public CommandManager() {
         RStream
@@ -82,7 +82,7 @@ public class AccountCommand extends Command {
                 .then(literal("offline").then(argument("name", string()).executes(ctx -> {
                     String name = getString(ctx, "name");
                     ViaProxy.getSaveManager().accountsSave.addAccount(name);
-                    ViaProxy.getSaveManager().save();
+                    ViaProxy.getSaveManager().scheduleSave();
                     ctx.getSource().sendMessage("Added offline account '" + name + "'.");
                     return 1;
                 })))
@@ -110,7 +110,7 @@ public class AccountCommand extends Command {
             }
             Account account = ViaProxy.getSaveManager().accountsSave.getAccounts().get(index);
             ViaProxy.getSaveManager().accountsSave.removeAccount(account);
-            ViaProxy.getSaveManager().save();
+            ViaProxy.getSaveManager().scheduleSave();
             if (ViaProxy.getConfig().getAccount() == account) {
                 ViaProxy.getConfig().setAccount(null);
             }
@@ -126,7 +126,7 @@ public class AccountCommand extends Command {
                 source.sendMessage("If the code is not inserted automatically, please enter the code: " + code.getUserCode() + ".");
             });
             ViaProxy.getSaveManager().accountsSave.addAccount(account);
-            ViaProxy.getSaveManager().save();
+            ViaProxy.getSaveManager().scheduleSave();
             return 1;
         } catch (InterruptedException ignored) {
         } catch (TimeoutException e) {
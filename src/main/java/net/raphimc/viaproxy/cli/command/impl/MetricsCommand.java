@@ -0,0 +1,57 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.cli.command.impl;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.raphimc.viaproxy.cli.command.Command;
+import net.raphimc.viaproxy.cli.command.executor.CommandExecutor;
+import net.raphimc.viaproxy.util.Metrics;
+
+import java.util.Map;
+
+public class MetricsCommand extends Command {
+
+    public MetricsCommand() {
+        super("metrics", "Print or reset the proxy performance counters", "metrics [reset]");
+    }
+
+    @Override
+    public void register(final LiteralArgumentBuilder<CommandExecutor> builder) {
+        builder.executes(context -> {
+            final Map<String, Long> snapshot = Metrics.snapshot();
+            if (snapshot.isEmpty()) {
+                context.getSource().sendMessage("No metrics have been recorded yet.");
+                return 1;
+            }
+            context.getSource().sendMessage("Metrics:");
+            snapshot.forEach((name, value) -> context.getSource().sendMessage(" - " + name + ": " + value));
+
+            final long flushes = snapshot.getOrDefault("forward.flushes", 0L);
+            if (flushes > 0) {
+                context.getSource().sendMessage(" - forward.packets_per_flush: " + String.format("%.2f", (double) snapshot.getOrDefault("forward.flushed_packets", 0L) / flushes));
+            }
+            return 1;
+        });
+        builder.then(literal("reset").executes(context -> {
+            Metrics.reset();
+            context.getSource().sendMessage("Reset all metrics.");
+            return 1;
+        }));
+    }
+
+}
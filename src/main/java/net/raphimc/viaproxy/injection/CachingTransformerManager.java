@@ -0,0 +1,168 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.injection;
+
+import net.lenni0451.classtransform.TransformerManager;
+import net.lenni0451.classtransform.utils.Sneaky;
+import net.lenni0451.classtransform.utils.tree.IClassProvider;
+import net.raphimc.viaproxy.util.Metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link TransformerManager} which stores the transformed bytes of classes on disk and reuses them across restarts.<br>
+ * Cache entries are keyed by a hash of the untransformed class bytes and a salt, which has to identify the set of transformers and the ViaProxy version.<br>
+ * Only classes which actually got transformed are cached, so untransformed classes don't have to be hashed.
+ */
+public class CachingTransformerManager extends TransformerManager {
+
+    private static final int KEY_LENGTH = 32;
+
+    private final Path cacheDirectory;
+    private final byte[] salt;
+    private final Set<String> cachedClasses = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Boolean> transforming = ThreadLocal.withInitial(() -> false);
+
+    public CachingTransformerManager(final IClassProvider classProvider, final File cacheDirectory, final String salt) {
+        super(classProvider);
+        this.cacheDirectory = cacheDirectory.toPath();
+        this.salt = salt.getBytes(StandardCharsets.UTF_8);
+
+        final File[] files = cacheDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(".class")) {
+                    this.cachedClasses.add(file.getName().substring(0, file.getName().length() - 6));
+                }
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return System.getProperty("disableClassCache") == null;
+    }
+
+    @Override
+    public byte[] transform(final String name, final byte[] bytes) {
+        return this.transformCached(name, bytes, () -> super.transform(name, bytes));
+    }
+
+    @Override
+    public byte[] transform(final ClassLoader loader, final String className, final Class<?> classBeingRedefined, final ProtectionDomain protectionDomain, final byte[] classfileBuffer) {
+        if (className == null) {
+            return this.transformUncached(() -> super.transform(loader, null, classBeingRedefined, protectionDomain, classfileBuffer));
+        }
+        return this.transformCached(className.replace('/', '.'), classfileBuffer, () -> super.transform(loader, className, classBeingRedefined, protectionDomain, classfileBuffer));
+    }
+
+    private byte[] transformCached(final String name, final byte[] bytes, final Transformation transformation) {
+        if (this.transforming.get()) { // The transformation is delegated between the transform methods
+            return this.transformUncached(transformation);
+        }
+
+        final Path cacheFile = this.cacheDirectory.resolve(name + ".class");
+        byte[] key = null;
+        if (this.cachedClasses.contains(name)) {
+            key = this.computeKey(bytes);
+            try {
+                final byte[] cachedBytes = Files.readAllBytes(cacheFile);
+                if (cachedBytes.length > KEY_LENGTH && Arrays.equals(cachedBytes, 0, KEY_LENGTH, key, 0, KEY_LENGTH)) {
+                    Metrics.counter("class_cache.hits").increment();
+                    return Arrays.copyOfRange(cachedBytes, KEY_LENGTH, cachedBytes.length);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        final byte[] transformedBytes = this.transformUncached(transformation);
+        if (transformedBytes != null && transformedBytes != bytes) {
+            Metrics.counter("class_cache.misses").increment();
+            if (key == null) {
+                key = this.computeKey(bytes);
+            }
+            try {
+                this.write(cacheFile, key, transformedBytes);
+                this.cachedClasses.add(name);
+            } catch (IOException ignored) { // The cache is only an optimization
+            }
+        }
+        return transformedBytes;
+    }
+
+    private byte[] transformUncached(final Transformation transformation) {
+        final boolean wasTransforming = this.transforming.get();
+        this.transforming.set(true);
+        try {
+            return transformation.transform();
+        } catch (Throwable e) {
+            Sneaky.sneakyThrow(e);
+            return null;
+        } finally {
+            this.transforming.set(wasTransforming);
+        }
+    }
+
+    private byte[] computeKey(final byte[] bytes) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(this.salt);
+            digest.update(bytes);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void write(final Path cacheFile, final byte[] key, final byte[] transformedBytes) throws IOException {
+        Files.createDirectories(this.cacheDirectory);
+        final Path tempFile = Files.createTempFile(this.cacheDirectory, cacheFile.getFileName().toString(), ".tmp");
+        try {
+            final byte[] data = new byte[KEY_LENGTH + transformedBytes.length];
+            System.arraycopy(key, 0, data, 0, KEY_LENGTH);
+            System.arraycopy(transformedBytes, 0, data, KEY_LENGTH, transformedBytes.length);
+            Files.write(tempFile, data);
+            try {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Transformation {
+
+        byte[] transform() throws Throwable;
+
+    }
+
+}
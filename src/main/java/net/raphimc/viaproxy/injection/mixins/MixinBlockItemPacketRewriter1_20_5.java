@@ -28,17 +28,13 @@ import com.viaversion.viaversion.api.minecraft.item.data.ToolRule;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import com.viaversion.viaversion.libs.fastutil.ints.IntOpenHashSet;
 import com.viaversion.viaversion.libs.fastutil.ints.IntSet;
-import com.viaversion.viaversion.libs.gson.JsonArray;
-import com.viaversion.viaversion.libs.gson.JsonElement;
-import com.viaversion.viaversion.libs.gson.JsonObject;
 import com.viaversion.viaversion.protocols.v1_20_2to1_20_3.packet.ClientboundPacket1_20_3;
 import com.viaversion.viaversion.protocols.v1_20_3to1_20_5.Protocol1_20_3To1_20_5;
 import com.viaversion.viaversion.protocols.v1_20_3to1_20_5.packet.ServerboundPacket1_20_5;
 import com.viaversion.viaversion.protocols.v1_20_3to1_20_5.rewriter.BlockItemPacketRewriter1_20_5;
 import com.viaversion.viaversion.rewriter.ItemRewriter;
 import net.raphimc.viaproxy.stubs.LegacyProtocolVersion;
-import net.raphimc.viaproxy.ViaProxy;
-import net.raphimc.viaproxy.plugins.events.ViaLoadingEvent;
+import net.raphimc.viaproxy.protocoltranslator.impl.MappingDataReader;
 import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyMappingDataLoader;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
@@ -58,7 +54,7 @@ public abstract class MixinBlockItemPacketRewriter1_20_5 extends ItemRewriter<Cl
     private final Map<String, Integer> armorMaxDamage_b1_8_1 = new HashMap<>();
 
     @Unique
-    private final Map<ProtocolVersion, Map<String, ToolProperties>> toolDataChanges = new LinkedHashMap<>();
+    private volatile Map<ProtocolVersion, Map<String, ToolProperties>> toolDataChanges;
 
     public MixinBlockItemPacketRewriter1_20_5() {
         super(null, null, null, null, null);
@@ -76,42 +72,11 @@ public abstract class MixinBlockItemPacketRewriter1_20_5 extends ItemRewriter<Cl
         this.foodItems_b1_7_3.add("minecraft:cooked_cod");
         this.foodItems_b1_7_3.add("minecraft:cookie");
 
-        final JsonObject armorMaxDamages = ViaProxyMappingDataLoader.INSTANCE.loadData("armor-damages-b1.8.1.json");
-        for (Map.Entry<String, JsonElement> entry : armorMaxDamages.entrySet()) {
-            this.armorMaxDamage_b1_8_1.put(entry.getKey(), entry.getValue().getAsInt());
+        final MappingDataReader armorMaxDamages = ViaProxyMappingDataLoader.INSTANCE.loadBinaryData("armor-damages-b1.8.1");
+        for (int i = armorMaxDamages.readObjectSize(); i > 0; i--) {
+            this.armorMaxDamage_b1_8_1.put(armorMaxDamages.readKey(), armorMaxDamages.readInt());
         }
 
-        ViaProxy.EVENT_MANAGER.registerRunnable(() -> {
-            final JsonObject itemToolComponents = ViaProxyMappingDataLoader.INSTANCE.loadData("item-tool-components.json");
-            for (Map.Entry<String, JsonElement> entry : itemToolComponents.entrySet()) {
-                final ProtocolVersion version = ProtocolVersion.getClosest(entry.getKey());
-                if (version == null) {
-                    throw new IllegalStateException("Unknown protocol version: " + entry.getKey());
-                }
-                final Map<String, ToolProperties> toolProperties = new HashMap<>();
-                final JsonArray toolComponents = entry.getValue().getAsJsonArray();
-                for (JsonElement toolComponent : toolComponents) {
-                    final JsonObject toolComponentObject = toolComponent.getAsJsonObject();
-                    final String item = toolComponentObject.get("item").getAsString();
-                    final float defaultMiningSpeed = toolComponentObject.get("default_mining_speed").getAsFloat();
-                    final int damagePerBlock = toolComponentObject.get("damage_per_block").getAsInt();
-                    final int[] suitableFor = this.blockJsonArrayToIds(version, toolComponentObject.getAsJsonArray("suitable_for"));
-                    final List<ToolRule> toolRules = new ArrayList<>();
-                    final JsonArray miningSpeeds = toolComponentObject.getAsJsonArray("mining_speeds");
-                    for (JsonElement miningSpeed : miningSpeeds) {
-                        final JsonObject miningSpeedObject = miningSpeed.getAsJsonObject();
-                        final int[] blocks = this.blockJsonArrayToIds(version, miningSpeedObject.getAsJsonArray("blocks"));
-                        final float speed = miningSpeedObject.get("speed").getAsFloat();
-                        toolRules.add(new ToolRule(HolderSet.of(blocks), speed, null));
-                    }
-                    if (suitableFor.length > 0) {
-                        toolRules.add(new ToolRule(HolderSet.of(suitableFor), null, true));
-                    }
-                    toolProperties.put(item, new ToolProperties(toolRules.toArray(new ToolRule[0]), defaultMiningSpeed, damagePerBlock));
-                }
-                this.toolDataChanges.put(version, toolProperties);
-            }
-        }, ViaLoadingEvent.class);
     }
 
     @Inject(method = "appendItemDataFixComponents", at = @At("RETURN"))
@@ -132,7 +97,7 @@ public abstract class MixinBlockItemPacketRewriter1_20_5 extends ItemRewriter<Cl
             }
         }
 
-        for (Map.Entry<ProtocolVersion, Map<String, ToolProperties>> entry : this.toolDataChanges.entrySet()) {
+        for (Map.Entry<ProtocolVersion, Map<String, ToolProperties>> entry : this.getToolDataChanges().entrySet()) {
             if (user.getProtocolInfo().serverProtocolVersion().olderThanOrEqualTo(entry.getKey())) {
                 final ToolProperties toolProperties = entry.getValue().get(identifier);
                 if (toolProperties != null) {
@@ -144,10 +109,74 @@ public abstract class MixinBlockItemPacketRewriter1_20_5 extends ItemRewriter<Cl
     }
 
     @Unique
-    private int[] blockJsonArrayToIds(final ProtocolVersion protocolVersion, final JsonArray jsonArray) {
+    private Map<ProtocolVersion, Map<String, ToolProperties>> getToolDataChanges() {
+        if (this.toolDataChanges == null) { // Loaded on first use because the mapping data of the protocol might be loaded lazily
+            synchronized (this) {
+                if (this.toolDataChanges == null) {
+                    final Map<ProtocolVersion, Map<String, ToolProperties>> toolDataChanges = new LinkedHashMap<>();
+                    final MappingDataReader itemToolComponents = ViaProxyMappingDataLoader.INSTANCE.loadBinaryData("item-tool-components");
+                    for (int i = itemToolComponents.readObjectSize(); i > 0; i--) {
+                        final String versionName = itemToolComponents.readKey();
+                        final ProtocolVersion version = ProtocolVersion.getClosest(versionName);
+                        if (version == null) {
+                            throw new IllegalStateException("Unknown protocol version: " + versionName);
+                        }
+                        final Map<String, ToolProperties> toolProperties = new HashMap<>();
+                        for (int j = itemToolComponents.readArraySize(); j > 0; j--) {
+                            this.readToolComponent(version, itemToolComponents, toolProperties);
+                        }
+                        toolDataChanges.put(version, toolProperties);
+                    }
+                    this.toolDataChanges = toolDataChanges;
+                }
+            }
+        }
+        return this.toolDataChanges;
+    }
+
+    @Unique
+    private void readToolComponent(final ProtocolVersion protocolVersion, final MappingDataReader reader, final Map<String, ToolProperties> toolProperties) {
+        String item = null;
+        float defaultMiningSpeed = 1F;
+        int damagePerBlock = 1;
+        int[] suitableFor = new int[0];
+        final List<ToolRule> toolRules = new ArrayList<>();
+        for (int i = reader.readObjectSize(); i > 0; i--) {
+            switch (reader.readKey()) {
+                case "item" -> item = reader.readString();
+                case "default_mining_speed" -> defaultMiningSpeed = (float) reader.readDouble();
+                case "damage_per_block" -> damagePerBlock = reader.readInt();
+                case "suitable_for" -> suitableFor = this.blockNamesToIds(protocolVersion, reader.readStringArray());
+                case "mining_speeds" -> {
+                    for (int j = reader.readArraySize(); j > 0; j--) {
+                        int[] blocks = new int[0];
+                        float speed = 1F;
+                        for (int k = reader.readObjectSize(); k > 0; k--) {
+                            switch (reader.readKey()) {
+                                case "blocks" -> blocks = this.blockNamesToIds(protocolVersion, reader.readStringArray());
+                                case "speed" -> speed = (float) reader.readDouble();
+                                default -> reader.skipValue();
+                            }
+                        }
+                        toolRules.add(new ToolRule(HolderSet.of(blocks), speed, null));
+                    }
+                }
+                default -> reader.skipValue();
+            }
+        }
+        if (item == null) {
+            throw new IllegalStateException("Tool component without item");
+        }
+        if (suitableFor.length > 0) {
+            toolRules.add(new ToolRule(HolderSet.of(suitableFor), null, true));
+        }
+        toolProperties.put(item, new ToolProperties(toolRules.toArray(new ToolRule[0]), defaultMiningSpeed, damagePerBlock));
+    }
+
+    @Unique
+    private int[] blockNamesToIds(final ProtocolVersion protocolVersion, final String[] names) {
         final IntSet ids = new IntOpenHashSet();
-        for (final JsonElement element : jsonArray) {
-            final String name = element.getAsString();
+        for (final String name : names) {
             if (name.startsWith("#")) { // Material name
                 final String material = name.substring(1);
                 for (Map.Entry<String, Map<ProtocolVersion, String>> entry : ViaProxyMappingDataLoader.BLOCK_MATERIALS.entrySet()) {
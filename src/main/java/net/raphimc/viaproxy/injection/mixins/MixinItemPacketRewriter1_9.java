@@ -21,18 +21,15 @@ package net.raphimc.viaproxy.injection.mixins;
 import com.viaversion.nbt.tag.CompoundTag;
 import com.viaversion.nbt.tag.ListTag;
 import com.viaversion.viaversion.api.minecraft.item.Item;
-import com.viaversion.viaversion.api.minecraft.item.data.AttributeModifiers1_20_5;
 import com.viaversion.viaversion.api.type.Type;
-import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectMap;
-import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectOpenHashMap;
-import com.viaversion.viaversion.libs.gson.JsonElement;
-import com.viaversion.viaversion.libs.gson.JsonObject;
+import com.viaversion.viaversion.libs.fastutil.objects.Object2IntMap;
+import com.viaversion.viaversion.libs.fastutil.objects.Object2IntOpenHashMap;
 import com.viaversion.viaversion.protocols.v1_8to1_9.Protocol1_8To1_9;
 import com.viaversion.viaversion.protocols.v1_8to1_9.packet.ClientboundPackets1_8;
 import com.viaversion.viaversion.protocols.v1_8to1_9.packet.ServerboundPackets1_9;
 import com.viaversion.viaversion.protocols.v1_8to1_9.rewriter.ItemPacketRewriter1_9;
 import com.viaversion.viaversion.rewriter.ItemRewriter;
-import com.viaversion.viaversion.util.Pair;
+import net.raphimc.viaproxy.protocoltranslator.impl.MappingDataReader;
 import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyMappingDataLoader;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
@@ -41,42 +38,67 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 @Mixin(value = ItemPacketRewriter1_9.class, remap = false)
 public abstract class MixinItemPacketRewriter1_9 extends ItemRewriter<ClientboundPackets1_8, ServerboundPackets1_9, Protocol1_8To1_9> {
 
+    /**
+     * Attribute modifier tags indexed by the 1.8 item id. The templates are never modified and get copied for every item.
+     */
     @Unique
-    private final Int2ObjectMap<String> itemIdentifiers = new Int2ObjectOpenHashMap<>();
+    private ListTag<CompoundTag>[] attributeModifierTemplates;
 
     @Unique
-    private final Map<String, Map<String, Pair<String, AttributeModifiers1_20_5.ModifierData>>> itemAttributes = new HashMap<>();
+    private String attributeFixTagName;
 
     public MixinItemPacketRewriter1_9(Protocol1_8To1_9 protocol, Type<Item> itemType, Type<Item[]> itemArrayType, Type<Item> mappedItemType, Type<Item[]> mappedItemArrayType) {
         super(protocol, itemType, itemArrayType, mappedItemType, mappedItemArrayType);
     }
 
+    @SuppressWarnings("unchecked")
     @Inject(method = "<init>", at = @At("RETURN"))
     private void loadAdditionalData(CallbackInfo ci) {
-        final JsonObject itemIdentifiers = ViaProxyMappingDataLoader.INSTANCE.loadData("item-identifiers-1.8.json");
-        for (Map.Entry<String, JsonElement> entry : itemIdentifiers.entrySet()) {
-            this.itemIdentifiers.put(entry.getValue().getAsInt(), entry.getKey());
+        this.attributeFixTagName = nbtTagName("attributeFix");
+
+        final Object2IntMap<String> itemIds = new Object2IntOpenHashMap<>();
+        itemIds.defaultReturnValue(-1);
+        int maxItemId = -1;
+        final MappingDataReader itemIdentifiers = ViaProxyMappingDataLoader.INSTANCE.loadBinaryData("item-identifiers-1.8");
+        for (int i = itemIdentifiers.readObjectSize(); i > 0; i--) {
+            final String identifier = itemIdentifiers.readKey();
+            final int id = itemIdentifiers.readInt();
+            itemIds.put(identifier, id);
+            maxItemId = Math.max(maxItemId, id);
         }
 
-        final JsonObject itemAttributes = ViaProxyMappingDataLoader.INSTANCE.loadData("item-attributes-1.8.json");
-        for (Map.Entry<String, JsonElement> itemEntry : itemAttributes.entrySet()) {
-            final String itemIdentifier = itemEntry.getKey();
-            final Map<String, Pair<String, AttributeModifiers1_20_5.ModifierData>> attributes = new HashMap<>();
-            for (Map.Entry<String, JsonElement> attributeEntry : itemEntry.getValue().getAsJsonObject().entrySet()) {
-                final String attribute = attributeEntry.getKey();
-                final JsonObject attributeData = attributeEntry.getValue().getAsJsonObject();
-                final AttributeModifiers1_20_5.ModifierData modifierData = new AttributeModifiers1_20_5.ModifierData(UUID.fromString(attributeData.get("id").getAsString()), attributeData.get("name").getAsString(), attributeData.get("amount").getAsDouble(), attributeData.get("operation").getAsInt());
-                final String slot = attributeData.get("slot").getAsString();
-                attributes.put(attribute, new Pair<>(slot, modifierData));
+        this.attributeModifierTemplates = new ListTag[maxItemId + 1];
+        final MappingDataReader itemAttributes = ViaProxyMappingDataLoader.INSTANCE.loadBinaryData("item-attributes-1.8");
+        for (int i = itemAttributes.readObjectSize(); i > 0; i--) {
+            final int itemId = itemIds.getInt(itemAttributes.readKey());
+            final ListTag<CompoundTag> attributeModifiers = new ListTag<>(CompoundTag.class);
+            for (int j = itemAttributes.readObjectSize(); j > 0; j--) {
+                final CompoundTag attributeModifier = new CompoundTag();
+                attributeModifier.putString("AttributeName", itemAttributes.readKey());
+                for (int k = itemAttributes.readObjectSize(); k > 0; k--) {
+                    switch (itemAttributes.readKey()) {
+                        case "id" -> {
+                            final UUID uuid = itemAttributes.readUUID();
+                            attributeModifier.putLong("UUIDMost", uuid.getMostSignificantBits());
+                            attributeModifier.putLong("UUIDLeast", uuid.getLeastSignificantBits());
+                        }
+                        case "name" -> attributeModifier.putString("Name", itemAttributes.readString());
+                        case "amount" -> attributeModifier.putDouble("Amount", itemAttributes.readDouble());
+                        case "operation" -> attributeModifier.putInt("Operation", itemAttributes.readInt());
+                        case "slot" -> attributeModifier.putString("Slot", itemAttributes.readString());
+                        default -> itemAttributes.skipValue();
+                    }
+                }
+                attributeModifiers.add(attributeModifier);
+            }
+            if (itemId != -1) {
+                this.attributeModifierTemplates[itemId] = attributeModifiers;
             }
-            this.itemAttributes.put(itemIdentifier, attributes);
         }
     }
 
@@ -84,36 +106,23 @@ public abstract class MixinItemPacketRewriter1_9 extends ItemRewriter<Clientboun
     private void addAttributeFixData(CallbackInfoReturnable<Item> cir) {
         final Item item = cir.getReturnValue();
         if (item == null) return;
+        final int itemId = item.identifier();
+        if (itemId < 0 || itemId >= this.attributeModifierTemplates.length) return;
+        final ListTag<CompoundTag> attributeModifierTemplate = this.attributeModifierTemplates[itemId];
+        if (attributeModifierTemplate == null) return;
 
-        final String identifier = this.itemIdentifiers.get(item.identifier());
-        if (identifier != null && this.itemAttributes.containsKey(identifier)) {
-            final Map<String, Pair<String, AttributeModifiers1_20_5.ModifierData>> attributes = this.itemAttributes.get(identifier);
-            final CompoundTag attributeFixTag = new CompoundTag();
-            CompoundTag tag = item.tag();
-            if (tag == null) {
-                tag = new CompoundTag();
-                item.setTag(tag);
-                attributeFixTag.putBoolean("RemoveTag", true);
-            }
-            tag.put(nbtTagName("attributeFix"), attributeFixTag);
-
-            ListTag<CompoundTag> attributeModifiers = tag.getListTag("AttributeModifiers", CompoundTag.class);
-            if (attributeModifiers == null) {
-                attributeModifiers = new ListTag<>(CompoundTag.class);
-                for (Map.Entry<String, Pair<String, AttributeModifiers1_20_5.ModifierData>> entry : attributes.entrySet()) {
-                    final CompoundTag attributeModifier = new CompoundTag();
-                    attributeModifier.putString("AttributeName", entry.getKey());
-                    attributeModifier.putString("Name", entry.getValue().value().name());
-                    attributeModifier.putDouble("Amount", entry.getValue().value().amount());
-                    attributeModifier.putInt("Operation", entry.getValue().value().operation());
-                    attributeModifier.putLong("UUIDMost", entry.getValue().value().uuid().getMostSignificantBits());
-                    attributeModifier.putLong("UUIDLeast", entry.getValue().value().uuid().getLeastSignificantBits());
-                    attributeModifier.putString("Slot", entry.getValue().key());
-                    attributeModifiers.add(attributeModifier);
-                }
-                tag.put("AttributeModifiers", attributeModifiers);
-                attributeFixTag.putBoolean("RemoveAttributeModifiers", true);
-            }
+        final CompoundTag attributeFixTag = new CompoundTag();
+        CompoundTag tag = item.tag();
+        if (tag == null) {
+            tag = new CompoundTag();
+            item.setTag(tag);
+            attributeFixTag.putBoolean("RemoveTag", true);
+        }
+        tag.put(this.attributeFixTagName, attributeFixTag);
+
+        if (tag.getListTag("AttributeModifiers", CompoundTag.class) == null) {
+            tag.put("AttributeModifiers", attributeModifierTemplate.copy()); // Later protocols rewrite the tags in place
+            attributeFixTag.putBoolean("RemoveAttributeModifiers", true);
         }
     }
 
@@ -123,7 +132,7 @@ public abstract class MixinItemPacketRewriter1_9 extends ItemRewriter<Clientboun
         if (item == null) return;
         final CompoundTag tag = item.tag();
         if (tag == null) return;
-        final CompoundTag attributeFixTag = tag.removeUnchecked(nbtTagName("attributeFix"));
+        final CompoundTag attributeFixTag = tag.removeUnchecked(this.attributeFixTagName);
         if (attributeFixTag == null) return;
 
         if (attributeFixTag.contains("RemoveAttributeModifiers")) {
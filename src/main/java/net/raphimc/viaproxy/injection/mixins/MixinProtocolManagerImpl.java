@@ -0,0 +1,67 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.injection.mixins;
+
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.protocol.ProtocolManagerImpl;
+import net.raphimc.viaproxy.protocoltranslator.ProtocolTranslator;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+
+@Mixin(value = ProtocolManagerImpl.class, remap = false)
+public abstract class MixinProtocolManagerImpl {
+
+    @Shadow
+    @Final
+    private Map<Class<? extends Protocol>, CompletableFuture<Void>> mappingLoaderFutures;
+
+    @Shadow
+    @Final
+    private ReadWriteLock mappingLoaderLock;
+
+    @Inject(method = "addMappingLoaderFuture(Ljava/lang/Class;Ljava/lang/Runnable;)V", at = @At("HEAD"), cancellable = true)
+    private void deferMappingLoading(Class<? extends Protocol> protocolClass, Runnable runnable, CallbackInfo ci) {
+        ci.cancel();
+        final CompletableFuture<Void> future = ProtocolTranslator.deferMappingLoading(protocolClass, runnable);
+        this.mappingLoaderLock.writeLock().lock();
+        try { // ViaVersion uses the future for dependent mapping loaders and to check whether all mappings have been loaded
+            this.mappingLoaderFutures.put(protocolClass, future);
+        } finally {
+            this.mappingLoaderLock.writeLock().unlock();
+        }
+    }
+
+    @Inject(method = "addMappingLoaderFuture(Ljava/lang/Class;Ljava/lang/Class;Ljava/lang/Runnable;)V", at = @At("HEAD"))
+    private void trackMappingLoaderDependency(Class<? extends Protocol> protocolClass, Class<? extends Protocol> dependsOn, Runnable runnable, CallbackInfo ci) {
+        ProtocolTranslator.addMappingLoaderDependency(protocolClass, dependsOn);
+    }
+
+    @Inject(method = "completeMappingDataLoading", at = @At("HEAD"))
+    private void loadDeferredMappings(Class<? extends Protocol> protocolClass, CallbackInfo ci) {
+        ProtocolTranslator.ensureMappingsLoaded(protocolClass);
+    }
+
+}
@@ -19,6 +19,7 @@ package net.raphimc.viaproxy.injection.mixins;
 
 import net.raphimc.viaproxy.stubs.ViaLegacyConfig;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.ui.ViaProxyUI;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
@@ -29,15 +30,15 @@ public abstract class MixinViaLegacyConfig {
 
     @Inject(method = "isLegacySkinLoading", at = @At("HEAD"), cancellable = true)
     private void makeGUIConfigurable1(final CallbackInfoReturnable<Boolean> cir) {
-        if (ViaProxy.getViaProxyWindow() != null) {
-            cir.setReturnValue(ViaProxy.getViaProxyWindow().advancedTab.legacySkinLoading.isSelected());
+        if (ViaProxy.hasUI() && ViaProxyUI.getViaProxyWindow() != null) {
+            cir.setReturnValue(ViaProxyUI.getViaProxyWindow().advancedTab.legacySkinLoading.isSelected());
         }
     }
 
     @Inject(method = "isLegacySkullLoading", at = @At("HEAD"), cancellable = true)
     private void makeGUIConfigurable2(final CallbackInfoReturnable<Boolean> cir) {
-        if (ViaProxy.getViaProxyWindow() != null) {
-            cir.setReturnValue(ViaProxy.getViaProxyWindow().advancedTab.legacySkinLoading.isSelected());
+        if (ViaProxy.hasUI() && ViaProxyUI.getViaProxyWindow() != null) {
+            cir.setReturnValue(ViaProxyUI.getViaProxyWindow().advancedTab.legacySkinLoading.isSelected());
         }
     }
 
@@ -25,6 +25,7 @@ import net.lenni0451.classtransform.utils.loader.InjectionClassLoader;
 import net.lenni0451.classtransform.utils.tree.IClassProvider;
 import net.lenni0451.reflect.stream.RStream;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.injection.CachingTransformerManager;
 import net.raphimc.viaproxy.injection.TransformerDowngrader;
 import net.raphimc.viaproxy.util.logging.Logger;
 import org.objectweb.asm.Opcodes;
@@ -43,6 +44,7 @@ import java.util.Map;
 public class PluginManager {
 
     public static final File PLUGINS_DIR = new File(ViaProxy.getCwd(), "plugins");
+    private static final File PLUGIN_CLASS_CACHE_DIR = new File(ViaProxy.getCwd(), "cache/classes/plugins");
 
     private final Yaml yaml = new Yaml();
     private final IClassProvider rootClassProvider = new GuavaClassPathProvider();
@@ -95,7 +97,14 @@ public class PluginManager {
 
     private void loadAndScanJar(final File file) throws Throwable {
         final URL url = file.toURI().toURL();
-        final TransformerManager transformerManager = new TransformerManager(new LazyFileClassProvider(Collections.singletonList(file), this.rootClassProvider));
+        final IClassProvider classProvider = new LazyFileClassProvider(Collections.singletonList(file), this.rootClassProvider);
+        final TransformerManager transformerManager;
+        if (CachingTransformerManager.isEnabled()) {
+            final String salt = ViaProxy.IMPL_VERSION + "|" + System.getProperty("java.class.version") + "|" + file.length() + "|" + file.lastModified();
+            transformerManager = new CachingTransformerManager(classProvider, new File(PLUGIN_CLASS_CACHE_DIR, file.getName()), salt);
+        } else {
+            transformerManager = new TransformerManager(classProvider);
+        }
         final InjectionClassLoader classLoader = new InjectionClassLoader(transformerManager, PluginManager.class.getClassLoader(), url);
         classLoader.addProtectedPackage("io.netty.");
 
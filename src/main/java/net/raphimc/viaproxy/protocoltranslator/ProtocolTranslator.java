@@ -17,7 +17,11 @@
  */
 package net.raphimc.viaproxy.protocoltranslator;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.viaversion.vialoader.ViaLoader;
+import com.viaversion.viaversion.api.Via;
+import com.viaversion.viaversion.api.protocol.Protocol;
+import com.viaversion.viaversion.api.protocol.ProtocolPathEntry;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import com.viaversion.viaversion.api.protocol.version.VersionType;
 import com.viaversion.viaversion.protocols.v1_20_3to1_20_5.Protocol1_20_3To1_20_5;
@@ -25,12 +29,20 @@ import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.plugins.events.ProtocolTranslatorInitEvent;
 import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyVLLoader;
 import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyViaVersionPlatformImpl;
+import net.raphimc.viaproxy.util.Metrics;
+import net.raphimc.viaproxy.util.logging.Logger;
 
 import java.io.File;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 
 public class ProtocolTranslator {
@@ -55,6 +67,13 @@ public class ProtocolTranslator {
         }
     };
 
+    private static final Map<Class<? extends Protocol>, Runnable> MAPPING_LOADERS = new ConcurrentHashMap<>();
+    private static final Map<Class<? extends Protocol>, CompletableFuture<Void>> MAPPING_LOADER_FUTURES = new ConcurrentHashMap<>();
+    private static final Map<Class<? extends Protocol>, Class<? extends Protocol>> MAPPING_LOADER_DEPENDENCIES = new ConcurrentHashMap<>();
+    private static final ExecutorService MAPPING_LOADER_EXECUTOR = Executors.newFixedThreadPool(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())), new ThreadFactoryBuilder().setNameFormat("ViaProxy Mapping Loader %d").setDaemon(true).build());
+    private static volatile boolean mappingLoadingStarted;
+    private static volatile boolean lazyMappingLoading;
+
     public static void init() {
         patchConfigs();
         // Removed ViaBackwards, ViaRewind, ViaLegacy, ViaAprilFools, and ViaBedrock to reduce memory usage
@@ -65,6 +84,103 @@ public class ProtocolTranslator {
         ProtocolVersion.register(AUTO_DETECT_PROTOCOL);
     }
 
+    /**
+     * Starts loading the mapping data which was deferred during the protocol registration.<br>
+     * Has to be called after the config has been loaded. Depending on the config either all mappings or only the ones needed for the warm-up versions are loaded in the background.
+     */
+    public static void startMappingLoading() {
+        lazyMappingLoading = ViaProxy.getConfig().shouldLazyLoadProtocols();
+        mappingLoadingStarted = true;
+        Metrics.gauge("protocol_mappings.pending", () -> MAPPING_LOADER_FUTURES.values().stream().filter(future -> !future.isDone()).count());
+        if (!lazyMappingLoading) {
+            MAPPING_LOADERS.keySet().forEach(ProtocolTranslator::loadMappings);
+            return;
+        }
+
+        final ProtocolVersion targetVersion = ViaProxy.getConfig().getTargetVersion();
+        if (targetVersion == null || !targetVersion.isKnown()) {
+            return;
+        }
+        for (String versionName : ViaProxy.getConfig().getProtocolWarmupVersions().split(",")) {
+            if (versionName.isBlank()) continue;
+            final ProtocolVersion clientVersion = ProtocolVersion.getClosest(versionName.trim());
+            if (clientVersion == null) {
+                Logger.LOGGER.warn("Unknown protocol warm-up version: " + versionName.trim());
+                continue;
+            }
+            loadMappings(clientVersion, targetVersion);
+        }
+    }
+
+    /**
+     * Called when ViaVersion wants to load the mapping data of a protocol. The loading is deferred until {@link #startMappingLoading()} has been called or the protocol is used.
+     *
+     * @param protocolClass The protocol class
+     * @param loader        The mapping data loader
+     * @return A future which completes once the mapping data has been loaded
+     */
+    public static CompletableFuture<Void> deferMappingLoading(final Class<? extends Protocol> protocolClass, final Runnable loader) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        MAPPING_LOADER_FUTURES.put(protocolClass, future);
+        MAPPING_LOADERS.put(protocolClass, loader);
+        if (mappingLoadingStarted && !lazyMappingLoading) {
+            loadMappings(protocolClass);
+        }
+        return future;
+    }
+
+    /**
+     * Called when ViaVersion registers the mapping data loader of a protocol which runs once the mapping data of another protocol has been loaded.
+     *
+     * @param protocolClass The protocol class
+     * @param dependsOn     The protocol class whose mapping data has to be loaded first
+     */
+    public static void addMappingLoaderDependency(final Class<? extends Protocol> protocolClass, final Class<? extends Protocol> dependsOn) {
+        MAPPING_LOADER_DEPENDENCIES.put(protocolClass, dependsOn);
+    }
+
+    public static CompletableFuture<Void> loadMappings(final ProtocolVersion clientVersion, final ProtocolVersion serverVersion) {
+        final List<ProtocolPathEntry> protocolPath = Via.getManager().getProtocolManager().getProtocolPath(clientVersion, serverVersion);
+        if (protocolPath == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.allOf(protocolPath.stream().map(entry -> loadMappings(entry.protocol().getClass())).toArray(CompletableFuture[]::new));
+    }
+
+    public static CompletableFuture<Void> loadMappings(final Class<? extends Protocol> protocolClass) {
+        final Class<? extends Protocol> dependency = MAPPING_LOADER_DEPENDENCIES.get(protocolClass);
+        if (dependency != null) { // ViaVersion loads the mapping data once the dependency has been loaded
+            loadMappings(dependency);
+            final CompletableFuture<Void> future = Via.getManager().getProtocolManager().getMappingLoaderFuture(protocolClass);
+            return future != null ? future : CompletableFuture.completedFuture(null);
+        }
+
+        final CompletableFuture<Void> future = MAPPING_LOADER_FUTURES.get(protocolClass);
+        if (future == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final Runnable loader = MAPPING_LOADERS.remove(protocolClass);
+        if (loader != null) { // Not loading yet
+            MAPPING_LOADER_EXECUTOR.execute(() -> {
+                final long start = System.nanoTime();
+                try {
+                    loader.run();
+                    Metrics.counter("protocol_mappings.loaded").increment();
+                    Metrics.counter("protocol_mappings.load_time_ms").add((System.nanoTime() - start) / 1_000_000);
+                    future.complete(null);
+                } catch (Throwable e) {
+                    Logger.LOGGER.error("Failed to load mapping data for " + protocolClass.getSimpleName(), e);
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+        return future;
+    }
+
+    public static void ensureMappingsLoaded(final Class<? extends Protocol> protocolClass) {
+        loadMappings(protocolClass).join();
+    }
+
     private static void patchConfigs() {
         final File configFolder = new File(ViaProxy.getCwd(), "ViaLoader");
         configFolder.mkdirs();
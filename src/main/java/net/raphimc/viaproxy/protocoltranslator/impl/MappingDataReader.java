@@ -0,0 +1,174 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.protocoltranslator.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Sequential reader for the binary mapping data files which are compiled from the json assets at build time.<br>
+ * A file starts with a table of all strings it contains, so equal strings are only decoded once and shared between all values.
+ * Values are read in the order they were written without building an intermediate tree.
+ */
+public class MappingDataReader {
+
+    public static final int MAGIC = 0x56504D44; // VPMD
+    public static final int VERSION = 1;
+
+    public static final byte NULL = 0;
+    public static final byte FALSE = 1;
+    public static final byte TRUE = 2;
+    public static final byte INT = 3;
+    public static final byte DOUBLE = 4;
+    public static final byte STRING = 5;
+    public static final byte ARRAY = 6;
+    public static final byte OBJECT = 7;
+
+    private final ByteBuffer buffer;
+    private final String[] strings;
+
+    public MappingDataReader(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("Invalid mapping data file");
+        }
+        final int version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported mapping data version: " + version);
+        }
+
+        this.strings = new String[this.readVarInt()];
+        for (int i = 0; i < this.strings.length; i++) {
+            final byte[] bytes = new byte[this.readVarInt()];
+            buffer.get(bytes);
+            this.strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Reads the header of an object. Each of the following entries consists of a key ({@link #readKey()}) and a value.
+     *
+     * @return The amount of entries in the object
+     */
+    public int readObjectSize() {
+        this.expect(OBJECT);
+        return this.readVarInt();
+    }
+
+    /**
+     * Reads the header of an array.
+     *
+     * @return The amount of values in the array
+     */
+    public int readArraySize() {
+        this.expect(ARRAY);
+        return this.readVarInt();
+    }
+
+    public String readKey() {
+        return this.strings[this.readVarInt()];
+    }
+
+    public String readString() {
+        this.expect(STRING);
+        return this.strings[this.readVarInt()];
+    }
+
+    public String[] readStringArray() {
+        final String[] array = new String[this.readArraySize()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = this.readString();
+        }
+        return array;
+    }
+
+    public UUID readUUID() {
+        return UUID.fromString(this.readString());
+    }
+
+    public int readInt() {
+        this.expect(INT);
+        return this.readZigZagVarInt();
+    }
+
+    public double readDouble() {
+        final byte type = this.buffer.get();
+        return switch (type) {
+            case INT -> this.readZigZagVarInt();
+            case DOUBLE -> this.buffer.getDouble();
+            default -> throw new IllegalStateException("Expected a number but got type " + type);
+        };
+    }
+
+    public boolean readBoolean() {
+        final byte type = this.buffer.get();
+        return switch (type) {
+            case FALSE -> false;
+            case TRUE -> true;
+            default -> throw new IllegalStateException("Expected a boolean but got type " + type);
+        };
+    }
+
+    public void skipValue() {
+        final byte type = this.buffer.get();
+        switch (type) {
+            case NULL, FALSE, TRUE -> {
+            }
+            case INT, STRING -> this.readVarInt();
+            case DOUBLE -> this.buffer.position(this.buffer.position() + Double.BYTES);
+            case ARRAY -> {
+                for (int i = this.readVarInt(); i > 0; i--) {
+                    this.skipValue();
+                }
+            }
+            case OBJECT -> {
+                for (int i = this.readVarInt(); i > 0; i--) {
+                    this.readVarInt();
+                    this.skipValue();
+                }
+            }
+            default -> throw new IllegalStateException("Unknown value type " + type);
+        }
+    }
+
+    private void expect(final byte type) {
+        final byte actualType = this.buffer.get();
+        if (actualType != type) {
+            throw new IllegalStateException("Expected value type " + type + " but got " + actualType);
+        }
+    }
+
+    private int readZigZagVarInt() {
+        final int value = this.readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = this.buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+}
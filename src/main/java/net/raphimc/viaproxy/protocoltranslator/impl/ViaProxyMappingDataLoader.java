@@ -20,9 +20,11 @@ package net.raphimc.viaproxy.protocoltranslator.impl;
 
 import com.viaversion.viaversion.api.data.MappingDataLoader;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
-import com.viaversion.viaversion.libs.gson.JsonElement;
-import com.viaversion.viaversion.libs.gson.JsonObject;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -36,25 +38,61 @@ public class ViaProxyMappingDataLoader extends MappingDataLoader {
     private ViaProxyMappingDataLoader() {
         super(ViaProxyMappingDataLoader.class, "assets/viaproxy/data/");
 
-        final JsonObject materialsData = this.loadData("materials-1.19.4.json");
-        for (Map.Entry<String, JsonElement> entry : materialsData.getAsJsonObject("materials").entrySet()) {
-            final JsonObject materialData = entry.getValue().getAsJsonObject();
-            MATERIALS.put(entry.getKey(), new Material(
-                    materialData.get("blocksMovement").getAsBoolean(),
-                    materialData.get("burnable").getAsBoolean(),
-                    materialData.get("liquid").getAsBoolean(),
-                    materialData.get("blocksLight").getAsBoolean(),
-                    materialData.get("replaceable").getAsBoolean(),
-                    materialData.get("solid").getAsBoolean()
-            ));
+        final MappingDataReader materialsData = this.loadBinaryData("materials-1.19.4");
+        for (int i = materialsData.readObjectSize(); i > 0; i--) {
+            switch (materialsData.readKey()) {
+                case "materials" -> {
+                    for (int j = materialsData.readObjectSize(); j > 0; j--) {
+                        final String name = materialsData.readKey();
+                        MATERIALS.put(name, readMaterial(materialsData));
+                    }
+                }
+                case "blocks" -> {
+                    for (int j = materialsData.readObjectSize(); j > 0; j--) {
+                        final String block = materialsData.readKey();
+                        final Map<ProtocolVersion, String> blockMaterials = new HashMap<>();
+                        for (int k = materialsData.readObjectSize(); k > 0; k--) {
+                            blockMaterials.put(ProtocolVersion.getClosest(materialsData.readKey()), materialsData.readString());
+                        }
+                        BLOCK_MATERIALS.put(block, blockMaterials);
+                    }
+                }
+                default -> materialsData.skipValue();
+            }
         }
-        for (Map.Entry<String, JsonElement> blockEntry : materialsData.getAsJsonObject("blocks").entrySet()) {
-            final Map<ProtocolVersion, String> blockMaterials = new HashMap<>();
-            for (Map.Entry<String, JsonElement> entry : blockEntry.getValue().getAsJsonObject().entrySet()) {
-                blockMaterials.put(ProtocolVersion.getClosest(entry.getKey()), entry.getValue().getAsString());
+    }
+
+    /**
+     * Opens a mapping data file which has been compiled from the json file with the same name by the compileMappingData build task.
+     *
+     * @param name The name of the json file without extension
+     * @return A reader for the compiled data
+     */
+    public MappingDataReader loadBinaryData(final String name) {
+        try (InputStream inputStream = ViaProxyMappingDataLoader.class.getClassLoader().getResourceAsStream("assets/viaproxy/data/" + name + ".bin")) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Missing compiled mapping data " + name + ".bin");
+            }
+            return new MappingDataReader(ByteBuffer.wrap(inputStream.readAllBytes()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read compiled mapping data " + name + ".bin", e);
+        }
+    }
+
+    private static Material readMaterial(final MappingDataReader reader) {
+        boolean blocksMovement = false, burnable = false, liquid = false, blocksLight = false, replaceable = false, solid = false;
+        for (int i = reader.readObjectSize(); i > 0; i--) {
+            switch (reader.readKey()) {
+                case "blocksMovement" -> blocksMovement = reader.readBoolean();
+                case "burnable" -> burnable = reader.readBoolean();
+                case "liquid" -> liquid = reader.readBoolean();
+                case "blocksLight" -> blocksLight = reader.readBoolean();
+                case "replaceable" -> replaceable = reader.readBoolean();
+                case "solid" -> solid = reader.readBoolean();
+                default -> reader.skipValue();
             }
-            BLOCK_MATERIALS.put(blockEntry.getKey(), blockMaterials);
         }
+        return new Material(blocksMovement, burnable, liquid, blocksLight, replaceable, solid);
     }
 
     public record Material(boolean blocksMovement, boolean burnable, boolean liquid, boolean blocksLight, boolean replaceable, boolean solid) {
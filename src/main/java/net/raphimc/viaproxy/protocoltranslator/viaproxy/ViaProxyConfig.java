@@ -18,6 +18,8 @@
 package net.raphimc.viaproxy.protocoltranslator.viaproxy;
 
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.uring.IoUring;
 import joptsimple.OptionException;
 import joptsimple.OptionParser;
 import joptsimple.OptionSet;
@@ -30,6 +32,7 @@ import net.lenni0451.optconfig.index.ConfigType;
 import net.lenni0451.optconfig.index.types.ConfigOption;
 import net.lenni0451.optconfig.index.types.SectionIndex;
 import net.lenni0451.optconfig.provider.ConfigProvider;
+import net.raphimc.netminecraft.util.TransportType;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.cli.BetterHelpFormatter;
 import net.raphimc.viaproxy.cli.HelpRequestedException;
@@ -126,6 +129,170 @@ public class ViaProxyConfig {
     @Description("The threshold for packet compression. Packets larger than this size will be compressed. (-1 to disable)")
     private int compressionThreshold = 256;
 
+    @Option("compression-engine")
+    @Description("The compression engine to use for packet compression. Plugins can register additional engines. (Built in: java)")
+    private String compressionEngine = "java";
+
+    @Option("client-compression-level")
+    @Description("The compression level (0-9) for packets sent to the client. Lower levels use less CPU time but compress less. (-1 for the default level)")
+    private int clientCompressionLevel = -1;
+
+    @Option("backend-compression-level")
+    @Description("The compression level (0-9) for packets sent to the backend server. Lower levels use less CPU time but compress less. (-1 for the default level)")
+    private int backendCompressionLevel = -1;
+
+    @Option("mirror-backend-compression-threshold")
+    @Description("Uses the compression threshold of the backend server for the client connection if the backend server enables compression. This allows forwarding compressed packets without compressing them again if the client and server versions are identical.")
+    private boolean mirrorBackendCompressionThreshold = false;
+
+    @Option("flush-consolidation")
+    @Description({
+            "Enabling this will only flush forwarded packets once per read batch instead of once per packet.",
+            "This greatly reduces the amount of syscalls during chunk loading and entity heavy gameplay."
+    })
+    private boolean flushConsolidation = true;
+
+    @Option("flush-consolidation-max-pending-bytes")
+    @Description("The maximum amount of unflushed bytes per connection before a flush is forced. Only used if flush consolidation is enabled.")
+    private int flushConsolidationMaxPendingBytes = 32768;
+
+    @Option("same-version-fast-path")
+    @Description({
+            "If the client and server versions are identical, the protocol translation is skipped and packets which aren't handled by ViaProxy are forwarded without decoding them.",
+            "ViaVersion and ViaProxy plugins hooking into the protocol translation won't see any packets of these connections."
+    })
+    private boolean sameVersionFastPath = false;
+
+    @Option("connection-splicing")
+    @Description({
+            "If the client and server versions are identical and neither side is encrypted, ViaProxy stops decoding packets once the PLAY state has been reached.",
+            "The connection is then forwarded as raw bytes. This only happens if both sides use the same compression threshold and no active feature has to modify packets anymore."
+    })
+    private boolean connectionSplicing = false;
+
+    @NotReloadable
+    @Option("transport-type")
+    @Description({
+            "The network transport to use for all connections.",
+            "auto: Use the best transport available on this system.",
+            "nio: Use the Java NIO transport. Works on all systems.",
+            "epoll: Use the Linux epoll transport. Enables zero-copy forwarding of raw connections.",
+            "io_uring: Use the Linux io_uring transport."
+    })
+    private TransportMode transportMode = TransportMode.AUTO;
+
+    @Option("colocate-backend-connections")
+    @Description("Handles the backend connection on the same thread as the client connection. This avoids handing every packet over to another thread.")
+    private boolean colocateBackendConnections = true;
+
+    @Option("splice-passthrough-connections")
+    @Description("Forwards the data of legacy passthrough connections in the kernel using splice(2). This requires the epoll transport and colocated backend connections.")
+    private boolean splicePassthroughConnections = false;
+
+    @Option("client-write-buffer-low-water-mark")
+    @Description("Once the unsent data for the client drops below this amount of bytes, ViaProxy resumes reading from the backend server.")
+    private int clientWriteBufferLowWaterMark = 262144;
+
+    @Option("client-write-buffer-high-water-mark")
+    @Description("If the unsent data for the client exceeds this amount of bytes, ViaProxy stops reading from the backend server until the client caught up.")
+    private int clientWriteBufferHighWaterMark = 1048576;
+
+    @Option("backend-write-buffer-low-water-mark")
+    @Description("Once the unsent data for the backend server drops below this amount of bytes, ViaProxy resumes reading from the client.")
+    private int backendWriteBufferLowWaterMark = 65536;
+
+    @Option("backend-write-buffer-high-water-mark")
+    @Description("If the unsent data for the backend server exceeds this amount of bytes, ViaProxy stops reading from the client until the backend server caught up.")
+    private int backendWriteBufferHighWaterMark = 262144;
+
+    @Option("dns-cache-ttl")
+    @Description("The amount of seconds resolved server addresses (including SRV records) are cached.")
+    private int dnsCacheTtl = 60;
+
+    @Option("dns-negative-cache-ttl")
+    @Description("The amount of seconds server addresses which could not be resolved are cached.")
+    private int dnsNegativeCacheTtl = 10;
+
+    @Option("auto-detect-cache-ttl")
+    @Description({
+            "The amount of seconds the automatically detected server version is cached. (0 to ping the server for every connection)",
+            "Outdated versions are still used while they are refreshed in the background."
+    })
+    private int autoDetectCacheTtl = 60;
+
+    @Option("status-cache-ttl")
+    @Description("The amount of seconds status responses (server list pings) are cached. Cached responses are sent without connecting to the backend server. (0 to disable)")
+    private int statusCacheTtl = 5;
+
+    @NotReloadable
+    @Option("auth-max-concurrent-requests")
+    @Description("The maximum amount of concurrent requests to the Mojang/Microsoft authentication servers. Virtual threads are used if the Java version supports them.")
+    private int authMaxConcurrentRequests = 64;
+
+    @NotReloadable
+    @Option("auth-max-queued-requests")
+    @Description("The maximum amount of authentication requests which can wait for a free slot. Players are kicked if this limit is exceeded.")
+    private int authMaxQueuedRequests = 1024;
+
+    @NotReloadable
+    @Option("crypto-threads")
+    @Description("The amount of threads used for the RSA operations during the login. (0 for an automatic amount based on the CPU cores)")
+    private int cryptoThreads = 0;
+
+    @NotReloadable
+    @Option("account-refresh-interval")
+    @Description("The interval in seconds in which expired account sessions are refreshed in the background. (0 to only refresh them during the login)")
+    private int accountRefreshInterval = 60;
+
+    @Option("save-delay")
+    @Description("The time in milliseconds in which multiple changes to the saves are merged into a single write to the saves.json file.")
+    private int saveDelay = 1000;
+
+    @Option("max-connections-per-second-per-ip")
+    @Description("The maximum amount of new connections per second from a single IP address. (0 to disable)")
+    private int maxConnectionsPerSecondPerIp = 10;
+
+    @Option("max-connections-per-second")
+    @Description("The maximum amount of new connections per second in total. (0 to disable)")
+    private int maxConnectionsPerSecond = 1000;
+
+    @Option("max-pre-login-connections")
+    @Description("The maximum amount of connections which haven't completed the login yet. This includes server list pings. (0 to disable)")
+    private int maxPreLoginConnections = 1024;
+
+    @Option("handshake-timeout")
+    @Description("The time in seconds a client has to send the handshake packet before being disconnected. (0 to disable)")
+    private int handshakeTimeout = 10;
+
+    @Option("idle-timeout-status")
+    @Description("The time in seconds after which connections in the handshake or status state are closed if no data has been received. (0 to disable)")
+    private int idleTimeoutStatus = 10;
+
+    @Option("idle-timeout-login")
+    @Description("The time in seconds after which connections in the login or configuration state are closed if no data has been received. (0 to disable)")
+    private int idleTimeoutLogin = 30;
+
+    @Option("idle-timeout-play")
+    @Description("The time in seconds after which connections in the play state are closed if no data has been received. (0 to disable)")
+    private int idleTimeoutPlay = 60;
+
+    @Option("write-timeout")
+    @Description("The time in seconds after which connections are closed if the other side doesn't accept any data while data is waiting to be sent. (0 to disable)")
+    private int writeTimeout = 0;
+
+    @NotReloadable
+    @Option("lazy-protocol-loading")
+    @Description({
+            "Enabling this will only load the mapping data of the protocols which are needed for the connecting clients.",
+            "This reduces the startup time and memory usage, but delays the first connection of each client version."
+    })
+    private boolean lazyProtocolLoading = false;
+
+    @NotReloadable
+    @Option("protocol-warmup-versions")
+    @Description("A comma separated list of client versions whose protocols are loaded in the background right after startup when lazy protocol loading is enabled. (Requires a fixed target version)")
+    private String protocolWarmupVersions = "";
+
     @Option("allow-beta-pinging")
     @Description("Enabling this will allow you to ping <= b1.7.3 servers. This may cause issues with servers that block too frequent connections.")
     private boolean allowBetaPinging = false;
@@ -250,7 +417,9 @@ public class ViaProxyConfig {
         final ConfigLoader<ViaProxyConfig> configLoader = new ConfigLoader<>(ViaProxyConfig.class);
         configLoader.getConfigOptions().setResetInvalidOptions(true).setRewriteConfig(true).setCommentSpacing(1);
         try {
-            return configLoader.load(ConfigProvider.file(configFile)).getConfigInstance();
+            final ViaProxyConfig config = configLoader.load(ConfigProvider.file(configFile)).getConfigInstance();
+            config.validateWriteBufferWaterMarks();
+            return config;
         } catch (Throwable e) {
             throw new RuntimeException("Failed to load config", e);
         }
@@ -313,6 +482,7 @@ public class ViaProxyConfig {
                 }
             }
 
+            this.validateWriteBufferWaterMarks();
             ViaProxy.EVENT_MANAGER.call(new PostOptionsParseEvent(options));
             return;
         } catch (OptionException e) {
@@ -451,6 +621,316 @@ public class ViaProxyConfig {
         this.save();
     }
 
+    public String getCompressionEngine() {
+        return this.compressionEngine;
+    }
+
+    public void setCompressionEngine(final String compressionEngine) {
+        this.compressionEngine = compressionEngine;
+        this.save();
+    }
+
+    public int getClientCompressionLevel() {
+        return this.clientCompressionLevel;
+    }
+
+    public void setClientCompressionLevel(final int clientCompressionLevel) {
+        this.clientCompressionLevel = this.validateClientCompressionLevel(clientCompressionLevel);
+        this.save();
+    }
+
+    public int getBackendCompressionLevel() {
+        return this.backendCompressionLevel;
+    }
+
+    public void setBackendCompressionLevel(final int backendCompressionLevel) {
+        this.backendCompressionLevel = this.validateBackendCompressionLevel(backendCompressionLevel);
+        this.save();
+    }
+
+    public boolean shouldMirrorBackendCompressionThreshold() {
+        return this.mirrorBackendCompressionThreshold;
+    }
+
+    public void setMirrorBackendCompressionThreshold(final boolean mirrorBackendCompressionThreshold) {
+        this.mirrorBackendCompressionThreshold = mirrorBackendCompressionThreshold;
+        this.save();
+    }
+
+    public boolean shouldConsolidateFlushes() {
+        return this.flushConsolidation;
+    }
+
+    public void setFlushConsolidation(final boolean flushConsolidation) {
+        this.flushConsolidation = flushConsolidation;
+        this.save();
+    }
+
+    public int getFlushConsolidationMaxPendingBytes() {
+        return this.flushConsolidationMaxPendingBytes;
+    }
+
+    public void setFlushConsolidationMaxPendingBytes(final int flushConsolidationMaxPendingBytes) {
+        this.flushConsolidationMaxPendingBytes = flushConsolidationMaxPendingBytes;
+        this.save();
+    }
+
+    public boolean shouldUseSameVersionFastPath() {
+        return this.sameVersionFastPath;
+    }
+
+    public void setSameVersionFastPath(final boolean sameVersionFastPath) {
+        this.sameVersionFastPath = sameVersionFastPath;
+        this.save();
+    }
+
+    public boolean shouldSpliceConnections() {
+        return this.connectionSplicing;
+    }
+
+    public void setConnectionSplicing(final boolean connectionSplicing) {
+        this.connectionSplicing = connectionSplicing;
+        this.save();
+    }
+
+    public TransportMode getTransportMode() {
+        return this.transportMode;
+    }
+
+    public void setTransportMode(final TransportMode transportMode) {
+        this.transportMode = transportMode;
+        this.save();
+    }
+
+    public boolean shouldColocateBackendConnections() {
+        return this.colocateBackendConnections;
+    }
+
+    public void setColocateBackendConnections(final boolean colocateBackendConnections) {
+        this.colocateBackendConnections = colocateBackendConnections;
+        this.save();
+    }
+
+    public boolean shouldSplicePassthroughConnections() {
+        return this.splicePassthroughConnections;
+    }
+
+    public void setSplicePassthroughConnections(final boolean splicePassthroughConnections) {
+        this.splicePassthroughConnections = splicePassthroughConnections;
+        this.save();
+    }
+
+    public int getClientWriteBufferLowWaterMark() {
+        return this.clientWriteBufferLowWaterMark;
+    }
+
+    public void setClientWriteBufferLowWaterMark(final int clientWriteBufferLowWaterMark) {
+        validateWriteBufferWaterMark("client-write-buffer", clientWriteBufferLowWaterMark, this.clientWriteBufferHighWaterMark);
+        this.clientWriteBufferLowWaterMark = clientWriteBufferLowWaterMark;
+        this.save();
+    }
+
+    public int getClientWriteBufferHighWaterMark() {
+        return this.clientWriteBufferHighWaterMark;
+    }
+
+    public void setClientWriteBufferHighWaterMark(final int clientWriteBufferHighWaterMark) {
+        validateWriteBufferWaterMark("client-write-buffer", this.clientWriteBufferLowWaterMark, clientWriteBufferHighWaterMark);
+        this.clientWriteBufferHighWaterMark = clientWriteBufferHighWaterMark;
+        this.save();
+    }
+
+    public int getBackendWriteBufferLowWaterMark() {
+        return this.backendWriteBufferLowWaterMark;
+    }
+
+    public void setBackendWriteBufferLowWaterMark(final int backendWriteBufferLowWaterMark) {
+        validateWriteBufferWaterMark("backend-write-buffer", backendWriteBufferLowWaterMark, this.backendWriteBufferHighWaterMark);
+        this.backendWriteBufferLowWaterMark = backendWriteBufferLowWaterMark;
+        this.save();
+    }
+
+    public int getBackendWriteBufferHighWaterMark() {
+        return this.backendWriteBufferHighWaterMark;
+    }
+
+    public void setBackendWriteBufferHighWaterMark(final int backendWriteBufferHighWaterMark) {
+        validateWriteBufferWaterMark("backend-write-buffer", this.backendWriteBufferLowWaterMark, backendWriteBufferHighWaterMark);
+        this.backendWriteBufferHighWaterMark = backendWriteBufferHighWaterMark;
+        this.save();
+    }
+
+    public int getDnsCacheTtl() {
+        return this.dnsCacheTtl;
+    }
+
+    public void setDnsCacheTtl(final int dnsCacheTtl) {
+        this.dnsCacheTtl = dnsCacheTtl;
+        this.save();
+    }
+
+    public int getDnsNegativeCacheTtl() {
+        return this.dnsNegativeCacheTtl;
+    }
+
+    public void setDnsNegativeCacheTtl(final int dnsNegativeCacheTtl) {
+        this.dnsNegativeCacheTtl = dnsNegativeCacheTtl;
+        this.save();
+    }
+
+    public int getAutoDetectCacheTtl() {
+        return this.autoDetectCacheTtl;
+    }
+
+    public void setAutoDetectCacheTtl(final int autoDetectCacheTtl) {
+        this.autoDetectCacheTtl = autoDetectCacheTtl;
+        this.save();
+    }
+
+    public int getStatusCacheTtl() {
+        return this.statusCacheTtl;
+    }
+
+    public void setStatusCacheTtl(final int statusCacheTtl) {
+        this.statusCacheTtl = statusCacheTtl;
+        this.save();
+    }
+
+    public int getAuthMaxConcurrentRequests() {
+        return this.authMaxConcurrentRequests;
+    }
+
+    public void setAuthMaxConcurrentRequests(final int authMaxConcurrentRequests) {
+        this.authMaxConcurrentRequests = authMaxConcurrentRequests;
+        this.save();
+    }
+
+    public int getAuthMaxQueuedRequests() {
+        return this.authMaxQueuedRequests;
+    }
+
+    public void setAuthMaxQueuedRequests(final int authMaxQueuedRequests) {
+        this.authMaxQueuedRequests = authMaxQueuedRequests;
+        this.save();
+    }
+
+    public int getCryptoThreads() {
+        return this.cryptoThreads;
+    }
+
+    public void setCryptoThreads(final int cryptoThreads) {
+        this.cryptoThreads = cryptoThreads;
+        this.save();
+    }
+
+    public int getAccountRefreshInterval() {
+        return this.accountRefreshInterval;
+    }
+
+    public void setAccountRefreshInterval(final int accountRefreshInterval) {
+        this.accountRefreshInterval = accountRefreshInterval;
+        this.save();
+    }
+
+    public int getSaveDelay() {
+        return this.saveDelay;
+    }
+
+    public void setSaveDelay(final int saveDelay) {
+        this.saveDelay = saveDelay;
+        this.save();
+    }
+
+    public int getMaxConnectionsPerSecondPerIp() {
+        return this.maxConnectionsPerSecondPerIp;
+    }
+
+    public void setMaxConnectionsPerSecondPerIp(final int maxConnectionsPerSecondPerIp) {
+        this.maxConnectionsPerSecondPerIp = maxConnectionsPerSecondPerIp;
+        this.save();
+    }
+
+    public int getMaxConnectionsPerSecond() {
+        return this.maxConnectionsPerSecond;
+    }
+
+    public void setMaxConnectionsPerSecond(final int maxConnectionsPerSecond) {
+        this.maxConnectionsPerSecond = maxConnectionsPerSecond;
+        this.save();
+    }
+
+    public int getMaxPreLoginConnections() {
+        return this.maxPreLoginConnections;
+    }
+
+    public void setMaxPreLoginConnections(final int maxPreLoginConnections) {
+        this.maxPreLoginConnections = maxPreLoginConnections;
+        this.save();
+    }
+
+    public int getHandshakeTimeout() {
+        return this.handshakeTimeout;
+    }
+
+    public void setHandshakeTimeout(final int handshakeTimeout) {
+        this.handshakeTimeout = handshakeTimeout;
+        this.save();
+    }
+
+    public int getIdleTimeoutStatus() {
+        return this.idleTimeoutStatus;
+    }
+
+    public void setIdleTimeoutStatus(final int idleTimeoutStatus) {
+        this.idleTimeoutStatus = idleTimeoutStatus;
+        this.save();
+    }
+
+    public int getIdleTimeoutLogin() {
+        return this.idleTimeoutLogin;
+    }
+
+    public void setIdleTimeoutLogin(final int idleTimeoutLogin) {
+        this.idleTimeoutLogin = idleTimeoutLogin;
+        this.save();
+    }
+
+    public int getIdleTimeoutPlay() {
+        return this.idleTimeoutPlay;
+    }
+
+    public void setIdleTimeoutPlay(final int idleTimeoutPlay) {
+        this.idleTimeoutPlay = idleTimeoutPlay;
+        this.save();
+    }
+
+    public int getWriteTimeout() {
+        return this.writeTimeout;
+    }
+
+    public void setWriteTimeout(final int writeTimeout) {
+        this.writeTimeout = writeTimeout;
+        this.save();
+    }
+
+    public boolean shouldLazyLoadProtocols() {
+        return this.lazyProtocolLoading;
+    }
+
+    public void setLazyProtocolLoading(final boolean lazyProtocolLoading) {
+        this.lazyProtocolLoading = lazyProtocolLoading;
+        this.save();
+    }
+
+    public String getProtocolWarmupVersions() {
+        return this.protocolWarmupVersions;
+    }
+
+    public void setProtocolWarmupVersions(final String protocolWarmupVersions) {
+        this.protocolWarmupVersions = protocolWarmupVersions;
+        this.save();
+    }
+
     public boolean shouldAllowBetaPinging() {
         return this.allowBetaPinging;
     }
@@ -636,6 +1116,37 @@ public class ViaProxyConfig {
         return targetVersion;
     }
 
+    private void validateWriteBufferWaterMarks() {
+        validateWriteBufferWaterMark("client-write-buffer", this.clientWriteBufferLowWaterMark, this.clientWriteBufferHighWaterMark);
+        validateWriteBufferWaterMark("backend-write-buffer", this.backendWriteBufferLowWaterMark, this.backendWriteBufferHighWaterMark);
+    }
+
+    private static void validateWriteBufferWaterMark(final String name, final int low, final int high) {
+        if (low < 0 || high < 0) {
+            throw new IllegalArgumentException("Invalid " + name + " water marks: The values can't be negative (low: " + low + ", high: " + high + ")");
+        }
+        if (low > high) {
+            throw new IllegalArgumentException("Invalid " + name + " water marks: " + name + "-low-water-mark (" + low + ") can't be greater than " + name + "-high-water-mark (" + high + ")");
+        }
+    }
+
+    @Validator("client-compression-level")
+    private int validateClientCompressionLevel(final int clientCompressionLevel) {
+        return validateCompressionLevel("client-compression-level", clientCompressionLevel);
+    }
+
+    @Validator("backend-compression-level")
+    private int validateBackendCompressionLevel(final int backendCompressionLevel) {
+        return validateCompressionLevel("backend-compression-level", backendCompressionLevel);
+    }
+
+    private static int validateCompressionLevel(final String name, final int level) {
+        if (level < -1 || level > 9) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + level + " (Has to be between 0 and 9 or -1 for the default level)");
+        }
+        return level;
+    }
+
     public enum AuthMethod {
 
         /**
@@ -659,6 +1170,45 @@ public class ViaProxyConfig {
 
     }
 
+    public enum TransportMode {
+
+        /**
+         * Use the best transport available on this system
+         */
+        AUTO(null),
+        /**
+         * Java NIO transport
+         */
+        NIO(TransportType.NIO),
+        /**
+         * Linux epoll transport
+         */
+        EPOLL(TransportType.EPOLL),
+        /**
+         * Linux io_uring transport
+         */
+        IO_URING(TransportType.IO_URING);
+
+        private final TransportType transportType;
+
+        TransportMode(final TransportType transportType) {
+            this.transportType = transportType;
+        }
+
+        public TransportType getTransportType() {
+            return this.transportType;
+        }
+
+        public boolean isAvailable() {
+            return switch (this) {
+                case AUTO, NIO -> true;
+                case EPOLL -> Epoll.isAvailable();
+                case IO_URING -> IoUring.isAvailable();
+            };
+        }
+
+    }
+
     public enum WildcardDomainHandling {
 
         /**
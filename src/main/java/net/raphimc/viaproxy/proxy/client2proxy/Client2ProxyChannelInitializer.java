@@ -23,6 +23,7 @@ import com.viaversion.viaversion.connection.UserConnectionImpl;
 import com.viaversion.viaversion.protocol.ProtocolPipelineImpl;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.handler.codec.haproxy.HAProxyMessageDecoder;
 import net.raphimc.netminecraft.constants.MCPipeline;
 import net.raphimc.netminecraft.netty.codec.NoReadFlowControlHandler;
@@ -33,6 +34,10 @@ import net.raphimc.viaproxy.plugins.events.Client2ProxyChannelInitializeEvent;
 import net.raphimc.viaproxy.plugins.events.types.ITyped;
 import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyVLPipeline;
 import net.raphimc.viaproxy.proxy.client2proxy.passthrough.LegacyPassthroughInitialHandler;
+import net.raphimc.viaproxy.proxy.compression.CompressionCodec;
+import net.raphimc.viaproxy.proxy.compression.CompressionEngines;
+import net.raphimc.viaproxy.proxy.encryption.EncryptionCodec;
+import net.raphimc.viaproxy.proxy.util.IdleReaper;
 
 import java.util.function.Supplier;
 
@@ -41,6 +46,7 @@ public class Client2ProxyChannelInitializer extends MinecraftChannelInitializer
     public static final String VIAPROXY_HAPROXY_DECODER_NAME = "viaproxy-haproxy-decoder";
     public static final String VIAPROXY_HAPROXY_HANDLER_NAME = "viaproxy-haproxy-handler";
     public static final String LEGACY_PASSTHROUGH_INITIAL_HANDLER_NAME = "legacy-passthrough-initial-handler";
+    public static final String HANDSHAKE_ADMISSION_HANDLER_NAME = "handshake-admission-handler";
 
     public Client2ProxyChannelInitializer(final Supplier<ChannelHandler> handlerSupplier) {
         super(handlerSupplier);
@@ -52,6 +58,7 @@ public class Client2ProxyChannelInitializer extends MinecraftChannelInitializer
             channel.close();
             return;
         }
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(ViaProxy.getConfig().getClientWriteBufferLowWaterMark(), ViaProxy.getConfig().getClientWriteBufferHighWaterMark()));
 
         if (ViaProxy.getConfig().useFrontendHaProxy()) {
             channel.pipeline().addLast(VIAPROXY_HAPROXY_DECODER_NAME, new HAProxyMessageDecoder());
@@ -60,14 +67,25 @@ public class Client2ProxyChannelInitializer extends MinecraftChannelInitializer
         if (ViaProxy.getConfig().shouldAllowLegacyClientPassthrough()) {
             channel.pipeline().addLast(LEGACY_PASSTHROUGH_INITIAL_HANDLER_NAME, new LegacyPassthroughInitialHandler());
         }
+        channel.pipeline().addLast(HANDSHAKE_ADMISSION_HANDLER_NAME, new HandshakeAdmissionHandler(this::initMinecraftPipeline));
+    }
 
+    /**
+     * Installs the Minecraft and ViaVersion pipeline. Called by the {@link HandshakeAdmissionHandler} once the client sends its first data.
+     *
+     * @param channel The client channel
+     */
+    protected void initMinecraftPipeline(final Channel channel) {
         super.initChannel(channel);
         channel.attr(MCPipeline.PACKET_REGISTRY_ATTRIBUTE_KEY).set(new DefaultPacketRegistry(false, -1));
+        channel.pipeline().replace(MCPipeline.COMPRESSION_HANDLER_NAME, MCPipeline.COMPRESSION_HANDLER_NAME, new CompressionCodec(CompressionEngines.getConfigured(), ViaProxy.getConfig().getClientCompressionLevel()));
+        EncryptionCodec.install(channel);
 
         final UserConnection user = new UserConnectionImpl(channel, false);
         new ProtocolPipelineImpl(user);
         channel.pipeline().addLast(new ViaProxyVLPipeline(user));
         channel.pipeline().addAfter(VLPipeline.VIA_CODEC_NAME, "via-" + MCPipeline.FLOW_CONTROL_HANDLER_NAME, new NoReadFlowControlHandler());
+        channel.pipeline().addFirst(IdleReaper.IDLE_REAPER_HANDLER_NAME, new IdleReaper(true));
 
         if (ViaProxy.EVENT_MANAGER.call(new Client2ProxyChannelInitializeEvent(ITyped.Type.POST, channel, false)).isCancelled()) {
             channel.close();
@@ -19,18 +19,26 @@ package net.raphimc.viaproxy.proxy.client2proxy;
 
 import com.google.common.collect.Lists;
 import com.google.common.net.HostAndPort;
+import com.viaversion.vialoader.netty.VLPipeline;
 import net.raphimc.viaproxy.stubs.CookieStorage;
 import com.viaversion.viaversion.api.connection.UserConnection;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import com.viaversion.viaversion.api.protocol.version.VersionType;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoop;
 import io.netty.channel.SimpleChannelInboundHandler;
 import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.constants.IntendedState;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.netminecraft.packet.impl.handshaking.C2SHandshakingClientIntentionPacket;
+import net.raphimc.netminecraft.packet.impl.status.C2SStatusPingRequestPacket;
+import net.raphimc.netminecraft.packet.impl.status.C2SStatusRequestPacket;
+import net.raphimc.netminecraft.packet.impl.status.S2CStatusPongResponsePacket;
+import net.raphimc.netminecraft.packet.impl.status.S2CStatusResponsePacket;
 import net.raphimc.viaproxy.stubs.BedrockProtocolVersion;
 import net.raphimc.viaproxy.stubs.LegacyProtocolVersion;
 import net.raphimc.viaproxy.ViaProxy;
@@ -39,6 +47,7 @@ import net.raphimc.viaproxy.plugins.events.PreConnectEvent;
 import net.raphimc.viaproxy.plugins.events.Proxy2ServerHandlerCreationEvent;
 import net.raphimc.viaproxy.plugins.events.ProxySessionCreationEvent;
 import net.raphimc.viaproxy.protocoltranslator.ProtocolTranslator;
+import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyVLPipeline;
 import net.raphimc.viaproxy.protocoltranslator.viaproxy.ViaProxyConfig;
 import net.raphimc.viaproxy.proxy.packethandler.*;
 import net.raphimc.viaproxy.proxy.proxy2server.Proxy2ServerChannelInitializer;
@@ -58,11 +67,18 @@ import java.net.SocketAddress;
 import java.nio.channels.UnresolvedAddressException;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
 
+    private static final LongAdder BACKEND_READ_PAUSES = Metrics.counter("backpressure.backend_read_pauses");
+    private static final LongAdder BACKEND_READ_PAUSED_MILLIS = Metrics.counter("backpressure.backend_read_paused_ms");
+
     private ProxyConnection proxyConnection;
+    private String cachedStatusResponse;
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
@@ -92,14 +108,55 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
             else throw new IllegalStateException("Unexpected packet in HANDSHAKING state");
             return;
         }
+        if (this.cachedStatusResponse != null) {
+            this.handleCachedStatus(packet);
+            return;
+        }
 
-        final List<ChannelFutureListener> listeners = Lists.newArrayList(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
-        for (PacketHandler packetHandler : this.proxyConnection.getPacketHandlers()) {
-            if (!packetHandler.handleC2P(packet, listeners)) {
-                return;
+        final FlushConsolidator p2sFlusher = this.proxyConnection.getP2sFlushConsolidator();
+        final PacketHandler[] packetHandlers = this.proxyConnection.getPacketDispatcher().getC2PHandlers(packet, this.proxyConnection.getC2pConnectionState());
+        if (packetHandlers.length == 0) {
+            p2sFlusher.write(packet).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        } else {
+            final List<ChannelFutureListener> listeners = Lists.newArrayList(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            for (PacketHandler packetHandler : packetHandlers) {
+                if (!packetHandler.handleC2P(packet, listeners)) {
+                    return;
+                }
+            }
+            p2sFlusher.write(packet).addListeners(listeners.toArray(new ChannelFutureListener[0]));
+        }
+        if (!ctx.channel().config().isAutoRead()) { // The read batch might not complete until the server responded, so flush now
+            p2sFlusher.flush();
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        if (this.proxyConnection.getChannel() != null) {
+            this.proxyConnection.getP2sFlushConsolidator().flush();
+            if (this.proxyConnection.getConnectionSplicer() != null) {
+                this.proxyConnection.getConnectionSplicer().trySplice(ctx.channel());
             }
         }
-        this.proxyConnection.getChannel().writeAndFlush(packet).addListeners(listeners.toArray(new ChannelFutureListener[0]));
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        final Channel p2s = this.proxyConnection.getChannel();
+        if (!ctx.channel().isWritable()) {
+            ctx.channel().flush(); // Make sure that consolidated packets can drain
+            if (p2s != null && ChannelUtil.pauseReads(p2s)) { // Stop reading from the server until the client caught up
+                BACKEND_READ_PAUSES.increment();
+            }
+        } else if (p2s != null) {
+            final long pausedTime = ChannelUtil.resumeReads(p2s);
+            if (pausedTime != -1) {
+                BACKEND_READ_PAUSED_MILLIS.add(TimeUnit.NANOSECONDS.toMillis(pausedTime));
+            }
+        }
+        super.channelWritabilityChanged(ctx);
     }
 
     @Override
@@ -108,6 +165,7 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
     }
 
     private void handleHandshake(final C2SHandshakingClientIntentionPacket packet) {
+        HandshakeAdmissionHandler.handshakeReceived(this.proxyConnection.getC2P());
         final ProtocolVersion clientVersion = ProtocolVersion.getProtocol(packet.protocolVersion);
 
         if (packet.intendedState == null) {
@@ -128,13 +186,13 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
             handshakeParts = new String[]{packet.address};
         }
 
-        SocketAddress serverAddress = ViaProxy.getConfig().getTargetAddress();
+        CompletableFuture<SocketAddress> serverAddress = CompletableFuture.completedFuture(ViaProxy.getConfig().getTargetAddress());
         ProtocolVersion serverVersion = ViaProxy.getConfig().getTargetVersion();
         String classicMpPass = ViaProxy.getConfig().getAccount() instanceof ClassicAccount classicAccount ? classicAccount.getMppass() : null;
 
         if (ViaProxy.getConfig().getWildcardDomainHandling() == ViaProxyConfig.WildcardDomainHandling.PUBLIC) {
             if (handshakeParts[0].toLowerCase().contains("f2.viaproxy.")) { // Format 2: address.<address>.port.<port>.version.<version>.f2.viaproxy.hostname
-                WildcardDomainParser.ParsedDomain parsedDomain = WildcardDomainParser.parseFormat2(handshakeParts[0]);
+                WildcardDomainParser.AsyncParsedDomain parsedDomain = WildcardDomainParser.parseFormat2Async(handshakeParts[0]);
                 if (parsedDomain == null) {
                     this.proxyConnection.kickClient("§cWrong domain syntax! §6Please use:\n§7address.<address>.port.<port>.version.<version>.f2.viaproxy.hostname");
                 } else if (parsedDomain.version() == null) {
@@ -144,7 +202,7 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
                     serverVersion = parsedDomain.version();
                 }
             } else if (handshakeParts[0].toLowerCase().contains("viaproxy.")) { // Format 1: address_port_version.viaproxy.hostname
-                WildcardDomainParser.ParsedDomain parsedDomain = WildcardDomainParser.parseFormat1(handshakeParts[0]);
+                WildcardDomainParser.AsyncParsedDomain parsedDomain = WildcardDomainParser.parseFormat1Async(handshakeParts[0]);
                 if (parsedDomain == null) {
                     this.proxyConnection.kickClient("§cWrong domain syntax! §6Please use:\n§7address_port_version.viaproxy.hostname");
                 } else if (parsedDomain.version() == null) {
@@ -162,7 +220,7 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
             final String versionString = arrayHelper.get(2);
             serverVersion = ProtocolVersionUtil.fromNameLenient(versionString);
             if (serverVersion == null) throw CloseAndReturn.INSTANCE;
-            serverAddress = AddressUtil.parse(arrayHelper.get(1), serverVersion);
+            serverAddress = AddressUtil.parseAsync(arrayHelper.get(1), serverVersion);
             if (arrayHelper.isIndexValid(3)) {
                 classicMpPass = arrayHelper.getString(3);
             }
@@ -176,12 +234,40 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
         }
 
         if (packet.intendedState.getConnectionState() == ConnectionState.LOGIN && TransferDataHolder.hasTempRedirect(this.proxyConnection.getC2P())) {
-            serverAddress = TransferDataHolder.removeTempRedirect(this.proxyConnection.getC2P());
+            final InetSocketAddress redirect = TransferDataHolder.removeTempRedirect(this.proxyConnection.getC2P());
+            if (redirect.isUnresolved()) {
+                serverAddress = ServerAddressResolver.resolve(redirect.getHostString(), redirect.getPort(), true).thenApply(SocketAddress.class::cast);
+            } else {
+                serverAddress = CompletableFuture.completedFuture(redirect);
+            }
             if (clientVersion.olderThan(ProtocolVersion.v1_20_5)) {
                 packet.intendedState = IntendedState.TRANSFER;
             }
         }
 
+        if (serverAddress.isDone() && !serverAddress.isCompletedExceptionally()) {
+            this.continueHandshake(packet, clientVersion, handshakeParts, serverAddress.join(), serverVersion, classicMpPass);
+        } else { // Don't block the event loop while the server address is being resolved
+            final Channel c2p = this.proxyConnection.getC2P();
+            final ProtocolVersion finalServerVersion = serverVersion;
+            final String finalClassicMpPass = classicMpPass;
+            ChannelUtil.disableAutoRead(c2p);
+            serverAddress.whenCompleteAsync((address, t) -> {
+                ChannelUtil.restoreAutoRead(c2p);
+                if (this.proxyConnection.isClosed()) return;
+                try {
+                    if (t != null) {
+                        this.proxyConnection.kickClient("§cCould not resolve the backend server address!");
+                    }
+                    this.continueHandshake(packet, clientVersion, handshakeParts, address, finalServerVersion, finalClassicMpPass);
+                } catch (Throwable e) {
+                    c2p.pipeline().fireExceptionCaught(e);
+                }
+            }, c2p.eventLoop());
+        }
+    }
+
+    private void continueHandshake(final C2SHandshakingClientIntentionPacket packet, final ProtocolVersion clientVersion, final String[] handshakeParts, SocketAddress serverAddress, ProtocolVersion serverVersion, final String classicMpPass) {
         HostAndPort clientHandshakeAddress;
         try {
             clientHandshakeAddress = HostAndPort.fromParts(handshakeParts[0], packet.port);
@@ -196,16 +282,30 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
         serverAddress = preConnectEvent.getServerAddress();
         serverVersion = preConnectEvent.getServerVersion();
 
+        if (packet.intendedState.getConnectionState() == ConnectionState.STATUS) {
+            final String cachedStatusResponse = StatusResponseCache.get(serverAddress, serverVersion, clientVersion, clientHandshakeAddress);
+            if (cachedStatusResponse != null) { // Answer the status request without connecting to the backend server
+                if (ViaProxy.getConfig().shouldLogClientStatusRequests()) {
+                    Logger.u_info("status", this.proxyConnection, "Answering status request from cache");
+                }
+                this.cachedStatusResponse = cachedStatusResponse;
+                return;
+            }
+        }
+
         final UserOptions userOptions = new UserOptions(classicMpPass, ViaProxy.getConfig().getAccount());
         ChannelUtil.disableAutoRead(this.proxyConnection.getC2P());
 
         if (packet.intendedState.getConnectionState() == ConnectionState.LOGIN && serverVersion.equals(ProtocolTranslator.AUTO_DETECT_PROTOCOL)) {
             SocketAddress finalServerAddress = serverAddress;
             HostAndPort finalClientHandshakeAddress = clientHandshakeAddress;
-            CompletableFuture.runAsync(() -> {
-                final ProtocolVersion detectedVersion = ProtocolVersionDetector.get(finalServerAddress, clientVersion);
-                this.connect(finalServerAddress, detectedVersion, clientVersion, packet.intendedState, finalClientHandshakeAddress, userOptions, handshakeParts);
-            }).exceptionally(t -> {
+            final EventLoop eventLoop = this.proxyConnection.getC2P().eventLoop();
+            ProtocolVersionDetector.getAsync(finalServerAddress, clientVersion, eventLoop).thenAcceptAsync(detectedVersion -> {
+                this.connect(finalServerAddress, detectedVersion, true, clientVersion, packet.intendedState, finalClientHandshakeAddress, userOptions, handshakeParts);
+            }, eventLoop).exceptionally(t -> {
+                if (t instanceof CompletionException && t.getCause() != null) t = t.getCause();
+                if (t instanceof CloseAndReturn) return null;
+
                 if (t instanceof ConnectException || t instanceof UnresolvedAddressException) {
                     this.proxyConnection.kickClient("§cCould not connect to the backend server!");
                 } else {
@@ -214,11 +314,37 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
                 return null;
             });
         } else {
-            this.connect(serverAddress, serverVersion, clientVersion, packet.intendedState, clientHandshakeAddress, userOptions, handshakeParts);
+            this.connect(serverAddress, serverVersion, false, clientVersion, packet.intendedState, clientHandshakeAddress, userOptions, handshakeParts);
+        }
+    }
+
+    private void handleCachedStatus(final Packet packet) {
+        if (packet instanceof C2SStatusRequestPacket) {
+            this.proxyConnection.getC2P().writeAndFlush(new S2CStatusResponsePacket(this.cachedStatusResponse)).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        } else if (packet instanceof C2SStatusPingRequestPacket statusPingRequestPacket) {
+            this.proxyConnection.getC2P().writeAndFlush(new S2CStatusPongResponsePacket(statusPingRequestPacket.time)).addListener(ChannelFutureListener.CLOSE);
+        } else {
+            throw new IllegalStateException("Unexpected packet in STATUS state");
         }
     }
 
-    private void connect(final SocketAddress serverAddress, final ProtocolVersion serverVersion, final ProtocolVersion clientVersion, final IntendedState intendedState, final HostAndPort clientHandshakeAddress, final UserOptions userOptions, final String[] handshakeParts) {
+    private void connect(final SocketAddress serverAddress, final ProtocolVersion serverVersion, final boolean autoDetectedVersion, final ProtocolVersion clientVersion, final IntendedState intendedState, final HostAndPort clientHandshakeAddress, final UserOptions userOptions, final String[] handshakeParts) {
+        final CompletableFuture<Void> mappingsFuture = ProtocolTranslator.loadMappings(clientVersion, serverVersion);
+        if (!mappingsFuture.isDone()) { // Don't block the event loop while the mapping data of the protocol path is being loaded
+            final Channel c2p = this.proxyConnection.getC2P();
+            ChannelUtil.disableAutoRead(c2p);
+            mappingsFuture.whenCompleteAsync((v, t) -> {
+                ChannelUtil.restoreAutoRead(c2p);
+                if (this.proxyConnection.isClosed()) return;
+                try {
+                    this.connect(serverAddress, serverVersion, autoDetectedVersion, clientVersion, intendedState, clientHandshakeAddress, userOptions, handshakeParts);
+                } catch (Throwable e) {
+                    c2p.pipeline().fireExceptionCaught(e);
+                }
+            }, c2p.eventLoop());
+            return;
+        }
+
         final Supplier<ChannelHandler> handlerSupplier = () -> ViaProxy.EVENT_MANAGER.call(new Proxy2ServerHandlerCreationEvent(new Proxy2ServerHandler(), false)).getHandler();
         final ProxyConnection proxyConnection;
         if (serverVersion.equals(BedrockProtocolVersion.bedrockLatest)) {
@@ -266,6 +392,16 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
             Logger.u_info("connect", this.proxyConnection, "[" + clientVersion.getName() + " <-> " + serverVersion.getName() + "] Connecting to " + AddressUtil.toString(serverAddress));
         }
         ViaProxy.EVENT_MANAGER.call(new ConnectEvent(this.proxyConnection));
+        this.proxyConnection.getPacketDispatcher(); // Build the packet routing tables
+        if (ViaProxy.getConfig().shouldUseSameVersionFastPath() && serverVersion.equals(clientVersion) && !(this.proxyConnection instanceof BedrockProxyConnection)) { // No protocol translation needed
+            final ChannelPipeline pipeline = this.proxyConnection.getC2P().pipeline();
+            pipeline.remove(VLPipeline.VIA_CODEC_NAME);
+            pipeline.remove(ViaProxyVLPipeline.class);
+            RawPacketForwarder.install(this.proxyConnection.getC2P(), this.proxyConnection, true);
+        }
+        if (ViaProxy.getConfig().shouldSpliceConnections() && serverVersion.equals(clientVersion) && !(this.proxyConnection instanceof BedrockProxyConnection)) {
+            this.proxyConnection.setConnectionSplicer(new ConnectionSplicer(this.proxyConnection));
+        }
 
         final int handshakePort;
         if (ViaProxy.getConfig().shouldRewriteHandshakePacket()) {
@@ -299,6 +435,15 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
 
         this.proxyConnection.connectToServer(serverAddress, serverVersion).addListeners((ThrowingChannelFutureListener) f -> {
             if (f.isSuccess()) {
+                this.proxyConnection.getLoginTimer().mark("connect");
+                if (autoDetectedVersion) { // The cached version might be outdated if the server closes the connection before the login has completed
+                    f.channel().closeFuture().addListener(cf -> {
+                        final ConnectionState p2sConnectionState = this.proxyConnection.getP2sConnectionState();
+                        if (p2sConnectionState == ConnectionState.HANDSHAKING || p2sConnectionState == ConnectionState.LOGIN) {
+                            ProtocolVersionDetector.invalidate(serverAddress);
+                        }
+                    });
+                }
                 f.channel().eventLoop().submit(() -> { // Reschedule so the packets get sent after the channel is fully initialized and active
                     if (ViaProxy.getConfig().useBackendHaProxy()) {
                         this.proxyConnection.getChannel().writeAndFlush(HAProxyUtil.createMessage(this.proxyConnection.getC2P(), this.proxyConnection.getChannel(), clientVersion)).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
@@ -344,6 +489,9 @@ public class Client2ProxyHandler extends SimpleChannelInboundHandler<Packet> {
             }
         }, (ThrowingChannelFutureListener) f -> {
             if (!f.isSuccess()) {
+                if (autoDetectedVersion) {
+                    ProtocolVersionDetector.invalidate(serverAddress);
+                }
                 if (f.cause() instanceof ConnectException || f.cause() instanceof UnresolvedAddressException) {
                     this.proxyConnection.kickClient("§cCould not connect to the backend server!");
                 } else {
@@ -22,12 +22,19 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.haproxy.HAProxyCommand;
 import io.netty.handler.codec.haproxy.HAProxyMessage;
+import io.netty.util.AttributeKey;
 import net.lenni0451.reflect.stream.RStream;
 
 import java.net.InetSocketAddress;
 
+/**
+ * Applies the source address of the HAProxy PROXY header to the channel.<br>
+ * Delays the channel active event until the header has been received, so the following handlers only see the real client address.
+ */
 public class HAProxyHandler extends SimpleChannelInboundHandler<HAProxyMessage> {
 
+    public static final AttributeKey<InetSocketAddress> SOURCE_ADDRESS_ATTRIBUTE_KEY = AttributeKey.valueOf("haproxy_source_address");
+
     @Override
     public void channelActive(ChannelHandlerContext ctx) {
     }
@@ -39,6 +46,7 @@ public class HAProxyHandler extends SimpleChannelInboundHandler<HAProxyMessage>
         }
         if (message.sourceAddress() != null) {
             final InetSocketAddress sourceAddress = new InetSocketAddress(message.sourceAddress(), message.sourcePort());
+            ctx.channel().attr(SOURCE_ADDRESS_ATTRIBUTE_KEY).set(sourceAddress);
             if (ctx.channel() instanceof AbstractChannel) {
                 RStream.of(AbstractChannel.class, ctx.channel()).fields().by("remoteAddress").set(sourceAddress);
             }
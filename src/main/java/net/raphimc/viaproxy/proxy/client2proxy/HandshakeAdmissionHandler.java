@@ -0,0 +1,162 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.client2proxy;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.ScheduledFuture;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.proxy.util.ExceptionUtil;
+import net.raphimc.viaproxy.proxy.util.TokenBucket;
+import net.raphimc.viaproxy.util.Metrics;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Admission stage at the front of the client pipeline. Rejects connections exceeding the configured rate and pre-login limits
+ * and only installs the full Minecraft pipeline once the client actually sends data.
+ */
+public class HandshakeAdmissionHandler extends ChannelInboundHandlerAdapter {
+
+    private static final AttributeKey<ScheduledFuture<?>> HANDSHAKE_TIMEOUT = AttributeKey.valueOf("handshake-timeout");
+    private static final AttributeKey<Boolean> PRE_LOGIN = AttributeKey.valueOf("pre-login");
+    private static final Cache<InetAddress, TokenBucket> IP_BUCKETS = CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.MINUTES).build();
+    private static final TokenBucket GLOBAL_BUCKET = new TokenBucket();
+    private static final AtomicInteger PRE_LOGIN_CONNECTIONS = new AtomicInteger();
+    private static final LongAdder RATE_LIMITED = Metrics.counter("admission.rate_limited");
+    private static final LongAdder PRE_LOGIN_REJECTED = Metrics.counter("admission.pre_login_rejected");
+    private static final LongAdder HANDSHAKE_TIMEOUTS = Metrics.counter("admission.handshake_timeouts");
+
+    static {
+        Metrics.gauge("admission.pre_login_connections", PRE_LOGIN_CONNECTIONS::get);
+    }
+
+    private final Consumer<Channel> pipelineInitializer;
+
+    public HandshakeAdmissionHandler(final Consumer<Channel> pipelineInitializer) {
+        this.pipelineInitializer = pipelineInitializer;
+    }
+
+    /**
+     * Cancels the handshake timeout of the given channel.
+     *
+     * @param channel The client channel
+     */
+    public static void handshakeReceived(final Channel channel) {
+        final ScheduledFuture<?> timeout = channel.attr(HANDSHAKE_TIMEOUT).getAndSet(null);
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+    }
+
+    /**
+     * Releases the pre-login slot of the given channel.
+     *
+     * @param channel The client channel
+     */
+    public static void loginCompleted(final Channel channel) {
+        if (channel.attr(PRE_LOGIN).getAndSet(null) != null) {
+            PRE_LOGIN_CONNECTIONS.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) {
+        final Channel channel = ctx.channel();
+        if (!this.tryAcquireRateLimit(this.getSourceAddress(channel))) {
+            RATE_LIMITED.increment();
+            ctx.close();
+            return;
+        }
+
+        channel.attr(PRE_LOGIN).set(true);
+        final int preLoginConnections = PRE_LOGIN_CONNECTIONS.incrementAndGet();
+        channel.closeFuture().addListener(f -> loginCompleted(channel));
+        if (ViaProxy.getConfig().getMaxPreLoginConnections() > 0 && preLoginConnections > ViaProxy.getConfig().getMaxPreLoginConnections()) {
+            PRE_LOGIN_REJECTED.increment();
+            ctx.close();
+            return;
+        }
+
+        if (ViaProxy.getConfig().getHandshakeTimeout() > 0) {
+            channel.attr(HANDSHAKE_TIMEOUT).set(ctx.executor().schedule(() -> {
+                HANDSHAKE_TIMEOUTS.increment();
+                channel.close();
+            }, ViaProxy.getConfig().getHandshakeTimeout(), TimeUnit.SECONDS));
+        }
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!ctx.channel().isOpen()) {
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+
+        this.pipelineInitializer.accept(ctx.channel());
+        ctx.pipeline().remove(this);
+        if (!ctx.channel().isOpen()) {
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+
+        ctx.fireChannelActive();
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        ExceptionUtil.handleNettyException(ctx, cause, null, true);
+    }
+
+    /**
+     * Gets the address the connection originates from. With frontend HAProxy the channel active event is only fired once the PROXY header has been decoded.
+     *
+     * @param channel The client channel
+     * @return The source address or null if it is unknown
+     */
+    private SocketAddress getSourceAddress(final Channel channel) {
+        if (ViaProxy.getConfig().useFrontendHaProxy()) {
+            return channel.attr(HAProxyHandler.SOURCE_ADDRESS_ATTRIBUTE_KEY).get(); // The remote address is the load balancer
+        } else {
+            return channel.remoteAddress();
+        }
+    }
+
+    private boolean tryAcquireRateLimit(final SocketAddress address) {
+        if (ViaProxy.getConfig().getMaxConnectionsPerSecondPerIp() > 0 && address instanceof InetSocketAddress inetSocketAddress && inetSocketAddress.getAddress() != null) {
+            final TokenBucket bucket = IP_BUCKETS.asMap().computeIfAbsent(inetSocketAddress.getAddress(), k -> new TokenBucket());
+            if (!bucket.tryTake(ViaProxy.getConfig().getMaxConnectionsPerSecondPerIp())) {
+                return false;
+            }
+        }
+        return ViaProxy.getConfig().getMaxConnectionsPerSecond() <= 0 || GLOBAL_BUCKET.tryTake(ViaProxy.getConfig().getMaxConnectionsPerSecond());
+    }
+
+}
@@ -23,6 +23,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.plugins.events.Client2ProxyHandlerCreationEvent;
+import net.raphimc.viaproxy.proxy.client2proxy.HandshakeAdmissionHandler;
 import net.raphimc.viaproxy.proxy.util.ExceptionUtil;
 
 import java.util.function.Supplier;
@@ -38,6 +39,8 @@ public class LegacyPassthroughInitialHandler extends SimpleChannelInboundHandler
         ctx.pipeline().remove(this);
 
         if (lengthOrPacketId == 0/*classic*/ || lengthOrPacketId == 1/*a1.0.15*/ || lengthOrPacketId == 2/*<= 1.6.4*/ || lengthOrPacketId == 254/*<= 1.6.4 (ping)*/) {
+            HandshakeAdmissionHandler.handshakeReceived(ctx.channel());
+            HandshakeAdmissionHandler.loginCompleted(ctx.channel());
             while (ctx.pipeline().last() != null) {
                 ctx.pipeline().removeLast();
             }
@@ -29,6 +29,7 @@ import net.raphimc.viaproxy.proxy.util.ChannelUtil;
 import net.raphimc.viaproxy.proxy.util.ExceptionUtil;
 import net.raphimc.viaproxy.proxy.util.HAProxyUtil;
 import net.raphimc.viaproxy.proxy.util.ThrowingChannelFutureListener;
+import net.raphimc.viaproxy.proxy.util.TransportUtil;
 import net.raphimc.viaproxy.util.AddressUtil;
 import net.raphimc.viaproxy.util.logging.Logger;
 import org.apache.logging.log4j.Level;
@@ -85,12 +86,26 @@ public class PassthroughClient2ProxyHandler extends SimpleChannelInboundHandler<
 
         this.proxyConnection.connect(serverAddress).addListeners((ThrowingChannelFutureListener) f -> {
             if (f.isSuccess()) {
-                f.channel().eventLoop().submit(() -> { // Reschedule so the packets get sent after the channel is fully initialized and active
-                    if (ViaProxy.getConfig().useBackendHaProxy()) {
-                        this.proxyConnection.getChannel().writeAndFlush(HAProxyUtil.createMessage(this.proxyConnection.getC2P(), this.proxyConnection.getChannel(), null)).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+                f.channel().eventLoop().execute(() -> { // Reschedule so the packets get sent after the channel is fully initialized and active
+                    try {
+                        if (ViaProxy.getConfig().useBackendHaProxy()) {
+                            this.proxyConnection.getChannel().writeAndFlush(HAProxyUtil.createMessage(this.proxyConnection.getC2P(), this.proxyConnection.getChannel(), null)).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+                        }
+
+                        if (ViaProxy.getConfig().shouldSplicePassthroughConnections()) {
+                            try {
+                                if (TransportUtil.spliceTo(this.proxyConnection.getC2P(), this.proxyConnection.getChannel())) { // Bytes which are read after this point don't reach the pipeline anymore
+                                    TransportUtil.spliceTo(this.proxyConnection.getChannel(), this.proxyConnection.getC2P());
+                                }
+                            } catch (Throwable e) { // The directions which aren't spliced keep being forwarded through the pipeline
+                                Logger.LOGGER.error("Failed to splice passthrough connection", e);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        this.proxyConnection.getC2P().pipeline().fireExceptionCaught(e);
+                    } finally {
+                        ChannelUtil.restoreAutoRead(this.proxyConnection.getC2P());
                     }
-
-                    ChannelUtil.restoreAutoRead(this.proxyConnection.getC2P());
                 });
             }
         }, (ThrowingChannelFutureListener) f -> {
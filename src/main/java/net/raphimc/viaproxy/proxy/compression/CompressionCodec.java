@@ -0,0 +1,112 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.MessageToMessageCodec;
+import io.netty.util.Attribute;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.packet.PacketTypes;
+
+import java.util.List;
+
+/**
+ * Minecraft packet compression using a {@link CompressionEngine}.<br>
+ * Replaces the compression handler of netminecraft and reads the compression threshold from {@link MCPipeline#COMPRESSION_THRESHOLD_ATTRIBUTE_KEY} as well.
+ */
+public class CompressionCodec extends MessageToMessageCodec<ByteBuf, ByteBuf> {
+
+    private static final int MAX_UNCOMPRESSED_LENGTH = 8 * 1024 * 1024;
+
+    private final CompressionEngine engine;
+    private final int level;
+    private Attribute<Integer> compressionThreshold;
+
+    public CompressionCodec(final CompressionEngine engine, final int level) {
+        this.engine = engine;
+        this.level = level;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.compressionThreshold = ctx.channel().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY);
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        final int threshold = this.getCompressionThreshold();
+        if (threshold < 0) {
+            out.add(in.retain());
+            return;
+        }
+
+        final int uncompressedLength = in.readableBytes();
+        if (uncompressedLength < threshold) {
+            final ByteBuf buf = ctx.alloc().ioBuffer(uncompressedLength + 1);
+            buf.writeByte(0);
+            buf.writeBytes(in);
+            out.add(buf);
+        } else {
+            final ByteBuf buf = ctx.alloc().ioBuffer(uncompressedLength / 2 + 16);
+            try {
+                PacketTypes.writeVarInt(buf, uncompressedLength);
+                this.engine.deflate(in, buf, this.level);
+            } catch (Throwable e) {
+                buf.release();
+                throw e;
+            }
+            out.add(buf);
+        }
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        final int threshold = this.getCompressionThreshold();
+        if (threshold < 0) {
+            out.add(in.retain());
+            return;
+        }
+
+        final int uncompressedLength = PacketTypes.readVarInt(in);
+        if (uncompressedLength == 0) {
+            out.add(in.retain());
+            return;
+        } else if (uncompressedLength < threshold) {
+            throw new DecoderException("Badly compressed packet - size of " + uncompressedLength + " is below threshold of " + threshold);
+        } else if (uncompressedLength > MAX_UNCOMPRESSED_LENGTH) {
+            throw new DecoderException("Badly compressed packet - size of " + uncompressedLength + " is larger than protocol maximum of " + MAX_UNCOMPRESSED_LENGTH);
+        }
+
+        final ByteBuf buf = ctx.alloc().ioBuffer(uncompressedLength);
+        try {
+            this.engine.inflate(in, buf, uncompressedLength);
+        } catch (Throwable e) {
+            buf.release();
+            throw e;
+        }
+        out.add(buf);
+    }
+
+    private int getCompressionThreshold() {
+        final Integer threshold = this.compressionThreshold.get();
+        return threshold != null ? threshold : -1;
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.compression;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.zip.DataFormatException;
+
+/**
+ * Compresses and decompresses the payload of minecraft packets. Implementations are used by the {@link CompressionCodec} of all connections.<br>
+ * Plugins can provide their own implementation (For example one which is backed by a native library) by registering it in {@link CompressionEngines}.
+ */
+public interface CompressionEngine {
+
+    /**
+     * Compresses all readable bytes of the source buffer into the destination buffer.
+     *
+     * @param source      The uncompressed data
+     * @param destination The buffer to write the compressed data to
+     * @param level       The compression level (-1 for the default level of the engine)
+     * @throws DataFormatException If the data couldn't be compressed
+     */
+    void deflate(final ByteBuf source, final ByteBuf destination, final int level) throws DataFormatException;
+
+    /**
+     * Decompresses all readable bytes of the source buffer into the destination buffer.
+     *
+     * @param source             The compressed data
+     * @param destination        The buffer to write the uncompressed data to
+     * @param uncompressedLength The expected length of the uncompressed data
+     * @throws DataFormatException If the data is malformed or doesn't have the expected length
+     */
+    void inflate(final ByteBuf source, final ByteBuf destination, final int uncompressedLength) throws DataFormatException;
+
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.compression;
+
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class CompressionEngines {
+
+    public static final String JAVA = "java";
+
+    private static final Map<String, CompressionEngine> ENGINES = new ConcurrentHashMap<>();
+
+    static {
+        register(JAVA, new JavaCompressionEngine());
+    }
+
+    /**
+     * Registers a compression engine which can be selected in the ViaProxy config.
+     *
+     * @param name   The name of the engine
+     * @param engine The engine
+     */
+    public static void register(final String name, final CompressionEngine engine) {
+        ENGINES.put(name, engine);
+    }
+
+    public static CompressionEngine get(final String name) {
+        return ENGINES.get(name);
+    }
+
+    /**
+     * @return The engine selected in the ViaProxy config or the Java engine if the selected one isn't registered
+     */
+    public static CompressionEngine getConfigured() {
+        final String name = ViaProxy.getConfig().getCompressionEngine();
+        final CompressionEngine engine = ENGINES.get(name);
+        if (engine == null) {
+            Logger.LOGGER.warn("Compression engine '" + name + "' is not registered. Falling back to the " + JAVA + " engine.");
+            return ENGINES.get(JAVA);
+        }
+        return engine;
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compression engine using the zlib bindings of the JDK.<br>
+ * The deflate and inflate state is pooled per thread, so every event loop reuses its own instances. Direct buffers are passed to zlib without copying them to the heap.
+ */
+public class JavaCompressionEngine implements CompressionEngine {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final FastThreadLocal<Deflater[]> deflaters = new FastThreadLocal<>() {
+        @Override
+        protected Deflater[] initialValue() {
+            return new Deflater[11]; // Default level and levels 0-9
+        }
+
+        @Override
+        protected void onRemoval(final Deflater[] deflaters) {
+            for (Deflater deflater : deflaters) {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+        }
+    };
+    private final FastThreadLocal<Inflater> inflaters = new FastThreadLocal<>() {
+        @Override
+        protected Inflater initialValue() {
+            return new Inflater();
+        }
+
+        @Override
+        protected void onRemoval(final Inflater inflater) {
+            inflater.end();
+        }
+    };
+
+    @Override
+    public void deflate(final ByteBuf source, final ByteBuf destination, final int level) {
+        final Deflater deflater = this.getDeflater(level);
+        try {
+            deflater.setInput(source.nioBuffer());
+            deflater.finish();
+            while (!deflater.finished()) {
+                destination.ensureWritable(CHUNK_SIZE);
+                final ByteBuffer output = destination.nioBuffer(destination.writerIndex(), destination.writableBytes());
+                destination.writerIndex(destination.writerIndex() + deflater.deflate(output));
+            }
+            source.skipBytes(source.readableBytes());
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    @Override
+    public void inflate(final ByteBuf source, final ByteBuf destination, final int uncompressedLength) throws DataFormatException {
+        final Inflater inflater = this.inflaters.get();
+        try {
+            inflater.setInput(source.nioBuffer());
+            destination.ensureWritable(uncompressedLength);
+            final ByteBuffer output = destination.nioBuffer(destination.writerIndex(), uncompressedLength);
+            while (output.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(output) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Compressed data is truncated");
+                }
+            }
+            if (output.hasRemaining() || !inflater.finished()) {
+                throw new DataFormatException("Uncompressed data doesn't match the expected length of " + uncompressedLength);
+            }
+            destination.writerIndex(destination.writerIndex() + uncompressedLength);
+            source.skipBytes(source.readableBytes());
+        } finally {
+            inflater.reset();
+        }
+    }
+
+    private Deflater getDeflater(final int level) { // The level is validated when the config is loaded
+        final Deflater[] deflaters = this.deflaters.get();
+        Deflater deflater = deflaters[level + 1];
+        if (deflater == null) {
+            deflater = deflaters[level + 1] = new Deflater(level);
+        }
+        return deflater;
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.encryption;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.util.Metrics;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executes expensive cryptographic operations (RSA encryption, decryption and signing) of the login off the event loops.
+ */
+public class CryptoExecutor {
+
+    private static final ThreadPoolExecutor EXECUTOR;
+    private static final LongAdder TASKS = Metrics.counter("crypto.tasks");
+    private static final LongAdder TASK_TIME = Metrics.counter("crypto.task_time_us");
+
+    static {
+        int threads = ViaProxy.getConfig().getCryptoThreads();
+        if (threads <= 0) {
+            threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        }
+        EXECUTOR = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setNameFormat("ViaProxy Crypto %d").setDaemon(true).build());
+        EXECUTOR.allowCoreThreadTimeOut(true);
+        Metrics.gauge("crypto.queued_tasks", () -> EXECUTOR.getQueue().size());
+    }
+
+    /**
+     * Executes the given task on the crypto executor.
+     *
+     * @param task The task
+     * @param <T>  The result type
+     * @return A future which completes with the result of the task
+     */
+    public static <T> CompletableFuture<T> supply(final Callable<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        TASKS.increment();
+        EXECUTOR.execute(() -> {
+            final long start = System.nanoTime();
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                TASK_TIME.add(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            }
+        });
+        return future;
+    }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.encryption;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.*;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.viaproxy.util.Metrics;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AES/CFB8 encryption of minecraft connections. Replaces the encryption handler of netminecraft.<br>
+ * Data is encrypted in place whenever the buffer isn't shared. The JDK AES cipher allocates temporary arrays on every ByteBuffer based update call,
+ * so the data is copied through scratch arrays which are reused for the whole connection and the byte array based update call is used instead.
+ * The ciphers are pooled and reused by later connections.<br>
+ * If encryption is enabled through {@link MCPipeline#ENCRYPTION_ATTRIBUTE_KEY} instead, the codec puts the replaced netminecraft handler back in place, so that contract keeps working.
+ */
+public class EncryptionCodec extends ChannelDuplexHandler {
+
+    public static final AttributeKey<Key> ENCRYPTION_KEY_ATTRIBUTE_KEY = AttributeKey.valueOf("viaproxy_encryption_key");
+
+    private static final String CIPHER_TRANSFORMATION = "AES/CFB8/NoPadding";
+    private static final int MAX_POOLED_CIPHERS = 1024;
+    private static final Queue<Cipher> CIPHER_POOL = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger POOLED_CIPHERS = new AtomicInteger();
+    private static final byte[] EMPTY_SCRATCH = new byte[0];
+    private static final LongAdder ENCRYPTED_BYTES = Metrics.counter("encryption.encrypted_bytes");
+    private static final LongAdder DECRYPTED_BYTES = Metrics.counter("encryption.decrypted_bytes");
+
+    private final ChannelHandler netMinecraftHandler;
+    private Attribute<Key> key;
+    private Attribute<?> netMinecraftKey;
+    private Cipher encryptCipher;
+    private Cipher decryptCipher;
+    private byte[] inputScratch = EMPTY_SCRATCH;
+    private byte[] outputScratch = EMPTY_SCRATCH;
+
+    private EncryptionCodec(final ChannelHandler netMinecraftHandler) {
+        this.netMinecraftHandler = netMinecraftHandler;
+    }
+
+    /**
+     * Replaces the encryption handler of netminecraft in the pipeline of the given channel.
+     *
+     * @param channel The channel
+     */
+    public static void install(final Channel channel) {
+        final ChannelHandler netMinecraftHandler = channel.pipeline().get(MCPipeline.ENCRYPTION_HANDLER_NAME);
+        channel.pipeline().replace(MCPipeline.ENCRYPTION_HANDLER_NAME, MCPipeline.ENCRYPTION_HANDLER_NAME, new EncryptionCodec(netMinecraftHandler));
+    }
+
+    /**
+     * Enables the encryption of the given channel. All data which is read or written after this call is encrypted.
+     *
+     * @param channel The channel
+     * @param key     The shared secret
+     */
+    public static void enable(final Channel channel, final Key key) {
+        channel.attr(ENCRYPTION_KEY_ATTRIBUTE_KEY).set(key);
+    }
+
+    public static boolean isEnabled(final Channel channel) {
+        return channel.attr(ENCRYPTION_KEY_ATTRIBUTE_KEY).get() != null || channel.attr(MCPipeline.ENCRYPTION_ATTRIBUTE_KEY).get() != null;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.key = ctx.channel().attr(ENCRYPTION_KEY_ATTRIBUTE_KEY);
+        this.netMinecraftKey = ctx.channel().attr(MCPipeline.ENCRYPTION_ATTRIBUTE_KEY);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        releaseCipher(this.encryptCipher);
+        releaseCipher(this.decryptCipher);
+        this.encryptCipher = null;
+        this.decryptCipher = null;
+        this.inputScratch = EMPTY_SCRATCH;
+        this.outputScratch = EMPTY_SCRATCH;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof ByteBuf buf && buf.isReadable() && !this.initCiphers() && this.restoreNetMinecraftHandler(ctx)) {
+            ((ChannelInboundHandler) this.netMinecraftHandler).channelRead(ctx.pipeline().context(this.netMinecraftHandler), msg);
+            return;
+        }
+        if (msg instanceof ByteBuf buf && buf.isReadable() && this.encryptCipher != null) {
+            final int length = buf.readableBytes();
+            DECRYPTED_BYTES.add(length);
+            if (!buf.isReadOnly()) { // Decrypt in place
+                this.crypt(this.decryptCipher, buf, buf, buf.readerIndex());
+            } else {
+                final ByteBuf decrypted = ctx.alloc().buffer(length);
+                try {
+                    this.crypt(this.decryptCipher, buf, decrypted, 0);
+                    decrypted.writerIndex(length);
+                } catch (Throwable e) {
+                    decrypted.release();
+                    throw e;
+                } finally {
+                    buf.release();
+                }
+                msg = decrypted;
+            }
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf buf && buf.isReadable() && !this.initCiphers() && this.restoreNetMinecraftHandler(ctx)) {
+            ((ChannelOutboundHandler) this.netMinecraftHandler).write(ctx.pipeline().context(this.netMinecraftHandler), msg, promise);
+            return;
+        }
+        if (msg instanceof ByteBuf buf && buf.isReadable() && this.encryptCipher != null) {
+            final int length = buf.readableBytes();
+            ENCRYPTED_BYTES.add(length);
+            if (!buf.isReadOnly() && buf.unwrap() == null && buf.refCnt() == 1) { // Not shared with anything else, so it can be encrypted in place
+                this.crypt(this.encryptCipher, buf, buf, buf.readerIndex());
+            } else {
+                final ByteBuf encrypted = ctx.alloc().ioBuffer(length);
+                try {
+                    this.crypt(this.encryptCipher, buf, encrypted, 0);
+                    encrypted.writerIndex(length);
+                } catch (Throwable e) {
+                    encrypted.release();
+                    throw e;
+                } finally {
+                    buf.release();
+                }
+                msg = encrypted;
+            }
+        }
+        ctx.write(msg, promise);
+    }
+
+    /**
+     * Encrypts or decrypts the readable bytes of the source buffer into the target buffer. The source and target buffer may be the same.
+     *
+     * @param cipher      The cipher
+     * @param source      The source buffer
+     * @param target      The target buffer
+     * @param targetIndex The index in the target buffer where the result is written to
+     */
+    private void crypt(final Cipher cipher, final ByteBuf source, final ByteBuf target, final int targetIndex) throws GeneralSecurityException {
+        final int length = source.readableBytes();
+        if (this.inputScratch.length < length) {
+            this.inputScratch = new byte[Math.max(length, this.inputScratch.length * 2)];
+        }
+        source.getBytes(source.readerIndex(), this.inputScratch, 0, length);
+        if (target.hasArray()) {
+            cipher.update(this.inputScratch, 0, length, target.array(), target.arrayOffset() + targetIndex);
+        } else {
+            if (this.outputScratch.length < length) {
+                this.outputScratch = new byte[this.inputScratch.length];
+            }
+            cipher.update(this.inputScratch, 0, length, this.outputScratch, 0);
+            target.setBytes(targetIndex, this.outputScratch, 0, length);
+        }
+    }
+
+    private boolean initCiphers() throws GeneralSecurityException {
+        if (this.encryptCipher != null) return true;
+
+        final Key key = this.key.get();
+        if (key == null) return false;
+        this.encryptCipher = acquireCipher(Cipher.ENCRYPT_MODE, key);
+        this.decryptCipher = acquireCipher(Cipher.DECRYPT_MODE, key);
+        return true;
+    }
+
+    /**
+     * Puts the netminecraft encryption handler back in place if the encryption has been enabled through {@link MCPipeline#ENCRYPTION_ATTRIBUTE_KEY}.
+     *
+     * @param ctx The context of this handler
+     * @return Whether the netminecraft handler has been restored and has to handle the message
+     */
+    private boolean restoreNetMinecraftHandler(final ChannelHandlerContext ctx) {
+        if (this.netMinecraftHandler == null || this.netMinecraftKey.get() == null) {
+            return false;
+        }
+        ctx.pipeline().replace(this, MCPipeline.ENCRYPTION_HANDLER_NAME, this.netMinecraftHandler);
+        return true;
+    }
+
+    private static Cipher acquireCipher(final int mode, final Key key) throws GeneralSecurityException {
+        Cipher cipher = CIPHER_POOL.poll();
+        if (cipher != null) {
+            POOLED_CIPHERS.decrementAndGet();
+        } else {
+            cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+        }
+        cipher.init(mode, key, new IvParameterSpec(key.getEncoded()));
+        return cipher;
+    }
+
+    private static void releaseCipher(final Cipher cipher) {
+        if (cipher != null && POOLED_CIPHERS.incrementAndGet() <= MAX_POOLED_CIPHERS) {
+            CIPHER_POOL.offer(cipher);
+        } else if (cipher != null) {
+            POOLED_CIPHERS.decrementAndGet();
+        }
+    }
+
+}
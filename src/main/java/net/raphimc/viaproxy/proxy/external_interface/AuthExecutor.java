@@ -0,0 +1,95 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.external_interface;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.util.Metrics;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executes blocking requests to the authentication servers. Uses virtual threads on Java 21+ and platform threads otherwise.<br>
+ * The amount of concurrent and queued requests is limited by the ViaProxy config.
+ */
+public class AuthExecutor {
+
+    private static final ThreadPoolExecutor EXECUTOR;
+    private static final LongAdder REQUESTS = Metrics.counter("auth.requests");
+    private static final LongAdder REJECTED_REQUESTS = Metrics.counter("auth.rejected_requests");
+    private static final LongAdder REQUEST_TIME = Metrics.counter("auth.request_time_ms");
+
+    static {
+        final int maxConcurrentRequests = Math.max(1, ViaProxy.getConfig().getAuthMaxConcurrentRequests());
+        final int maxQueuedRequests = Math.max(1, ViaProxy.getConfig().getAuthMaxQueuedRequests());
+        EXECUTOR = new ThreadPoolExecutor(maxConcurrentRequests, maxConcurrentRequests, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(maxQueuedRequests), createThreadFactory());
+        EXECUTOR.allowCoreThreadTimeOut(true);
+        Metrics.gauge("auth.active_requests", EXECUTOR::getActiveCount);
+        Metrics.gauge("auth.queued_requests", () -> EXECUTOR.getQueue().size());
+    }
+
+    /**
+     * Executes the given task on the auth executor.
+     *
+     * @param task The task
+     * @param <T>  The result type
+     * @return A future which completes with the result of the task. Completes with a {@link RejectedExecutionException} if too many requests are queued.
+     */
+    public static <T> CompletableFuture<T> supply(final Task<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            EXECUTOR.execute(() -> {
+                final long start = System.nanoTime();
+                try {
+                    future.complete(task.run());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    REQUEST_TIME.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            });
+            REQUESTS.increment();
+        } catch (RejectedExecutionException e) {
+            REJECTED_REQUESTS.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builderClass.getMethod("name", String.class, long.class).invoke(builder, "ViaProxy Auth ", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (Throwable e) { // Virtual threads require Java 21
+            Logger.LOGGER.debug("Virtual threads are not available, using platform threads for authentication requests");
+            return new ThreadFactoryBuilder().setNameFormat("ViaProxy Auth %d").setDaemon(true).build();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Task<T> {
+
+        T run() throws Throwable;
+
+    }
+
+}
@@ -35,10 +35,22 @@ public class BrandCustomPayloadPacketHandler extends PacketHandler {
     private static final String BRAND_CHANNEL = "minecraft:brand";
     private static final String LEGACY_BRAND_CHANNEL = "MC|Brand";
 
+    private volatile boolean brandRewritten;
+
     public BrandCustomPayloadPacketHandler(ProxyConnection proxyConnection) {
         super(proxyConnection);
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.p2s(S2CCustomPayloadPacket.class);
+    }
+
+    @Override
+    public boolean allowsSplicing() {
+        return this.brandRewritten;
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) throws Exception {
         if (packet instanceof S2CCustomPayloadPacket customPayloadPacket) {
@@ -59,6 +71,7 @@ public class BrandCustomPayloadPacketHandler extends PacketHandler {
                 final ByteBuf newData = Unpooled.buffer();
                 PacketTypes.writeString(newData, newBrand);
                 customPayloadPacket.data = ByteBufUtil.getBytes(newData);
+                this.brandRewritten = true;
             }
         }
 
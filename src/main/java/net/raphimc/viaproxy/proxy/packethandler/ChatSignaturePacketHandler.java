@@ -29,10 +29,10 @@ import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFutureListener;
 import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.constants.MCPackets;
-import net.raphimc.netminecraft.constants.MCPipeline;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.netminecraft.packet.PacketTypes;
 import net.raphimc.netminecraft.packet.UnknownPacket;
+import net.raphimc.viaproxy.proxy.encryption.EncryptionCodec;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
 
 import java.util.BitSet;
@@ -43,6 +43,7 @@ public class ChatSignaturePacketHandler extends PacketHandler {
     private final int joinGameId;
     private final int chatSessionUpdateId;
     private final int chatMessageId;
+    private volatile boolean chatSessionUpdateDropped;
 
     public ChatSignaturePacketHandler(ProxyConnection proxyConnection) {
         super(proxyConnection);
@@ -52,12 +53,24 @@ public class ChatSignaturePacketHandler extends PacketHandler {
         this.chatMessageId = MCPackets.C2S_CHAT.getId(proxyConnection.getClientVersion().getVersion());
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.c2p(ConnectionState.PLAY, this.chatSessionUpdateId, this.chatMessageId);
+        routes.p2s(ConnectionState.PLAY, this.joinGameId);
+    }
+
+    @Override
+    public boolean allowsSplicing() { // Chat messages have to be signed by the proxy and the chat session update must not reach the server
+        return this.chatSessionUpdateDropped && !this.proxyConnection.getUserConnection().has(ChatSession1_19_3.class);
+    }
+
     @Override
     public boolean handleC2P(Packet packet, List<ChannelFutureListener> listeners) throws Exception {
         if (packet instanceof UnknownPacket unknownPacket && this.proxyConnection.getC2pConnectionState() == ConnectionState.PLAY) {
             final UserConnection user = this.proxyConnection.getUserConnection();
 
             if (unknownPacket.packetId == this.chatSessionUpdateId && (!this.isP2sEncrypted() || user.has(ChatSession1_19_3.class))) {
+                this.chatSessionUpdateDropped = true;
                 return false;
             } else if (unknownPacket.packetId == this.chatMessageId && user.has(ChatSession1_19_3.class)) {
                 final ChatSession1_19_3 chatSession = user.get(ChatSession1_19_3.class);
@@ -110,7 +123,7 @@ public class ChatSignaturePacketHandler extends PacketHandler {
     }
 
     private boolean isP2sEncrypted() {
-        return this.proxyConnection.getChannel().attr(MCPipeline.ENCRYPTION_ATTRIBUTE_KEY).get() != null;
+        return EncryptionCodec.isEnabled(this.proxyConnection.getChannel());
     }
 
 }
@@ -36,18 +36,39 @@ public class CompressionPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.p2s(S2CLoginCompressionPacket.class, S2CLoginGameProfilePacket.class, S2CPlaySetCompressionPacket.class);
+    }
+
+    @Override
+    public boolean allowsSplicing() {
+        return true;
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) {
         if (packet instanceof S2CPlaySetCompressionPacket setCompressionPacket) {
             this.proxyConnection.getChannel().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).set(setCompressionPacket.compressionThreshold);
+            if (ViaProxy.getConfig().shouldMirrorBackendCompressionThreshold() && this.proxyConnection.getClientVersion().equals(this.proxyConnection.getServerVersion())) {
+                ChannelUtil.disableAutoRead(this.proxyConnection.getChannel());
+                listeners.add(f -> {
+                    if (f.isSuccess()) {
+                        this.proxyConnection.getC2P().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).set(setCompressionPacket.compressionThreshold);
+                        ChannelUtil.restoreAutoRead(this.proxyConnection.getChannel());
+                    }
+                });
+                return true;
+            }
             return false;
         } else if (packet instanceof S2CLoginGameProfilePacket) {
             if (this.proxyConnection.getClientVersion().newerThanOrEqualTo(ProtocolVersion.v1_8)) {
-                if (ViaProxy.getConfig().getCompressionThreshold() > -1 && this.proxyConnection.getC2P().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).get() == -1) {
+                final int compressionThreshold = this.getClientCompressionThreshold();
+                if (compressionThreshold > -1 && this.proxyConnection.getC2P().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).get() == -1) {
                     ChannelUtil.disableAutoRead(this.proxyConnection.getChannel());
-                    this.proxyConnection.getC2P().writeAndFlush(new S2CLoginCompressionPacket(ViaProxy.getConfig().getCompressionThreshold())).addListeners(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE, (ChannelFutureListener) f -> {
+                    this.proxyConnection.getC2P().writeAndFlush(new S2CLoginCompressionPacket(compressionThreshold)).addListeners(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE, (ChannelFutureListener) f -> {
                         if (f.isSuccess()) {
-                            this.proxyConnection.getC2P().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).set(ViaProxy.getConfig().getCompressionThreshold());
+                            this.proxyConnection.getC2P().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).set(compressionThreshold);
                             ChannelUtil.restoreAutoRead(this.proxyConnection.getChannel());
                         }
                     });
@@ -61,4 +82,14 @@ public class CompressionPacketHandler extends PacketHandler {
         return true;
     }
 
+    private int getClientCompressionThreshold() {
+        if (ViaProxy.getConfig().shouldMirrorBackendCompressionThreshold()) { // Allows forwarding compressed packets without compressing them again
+            final Integer backendCompressionThreshold = this.proxyConnection.getChannel().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).get();
+            if (backendCompressionThreshold != null && backendCompressionThreshold > -1) {
+                return backendCompressionThreshold;
+            }
+        }
+        return ViaProxy.getConfig().getCompressionThreshold();
+    }
+
 }
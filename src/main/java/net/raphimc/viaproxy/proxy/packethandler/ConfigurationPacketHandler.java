@@ -37,6 +37,17 @@ public class ConfigurationPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.c2p(C2SLoginAcknowledgedPacket.class, C2SConfigFinishConfigurationPacket.class, C2SPlayConfigurationAcknowledgedPacket.class);
+        routes.p2s(S2CConfigFinishConfigurationPacket.class, S2CPlayStartConfigurationPacket.class);
+    }
+
+    @Override
+    public boolean allowsSplicing() {
+        return true;
+    }
+
     @Override
     public boolean handleC2P(Packet packet, List<ChannelFutureListener> listeners) {
         if (packet instanceof C2SLoginAcknowledgedPacket) {
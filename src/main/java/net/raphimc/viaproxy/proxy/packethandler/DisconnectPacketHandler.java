@@ -33,6 +33,16 @@ public class DisconnectPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.p2s(S2CLoginDisconnectPacket.class, S2CDisconnectPacket.class);
+    }
+
+    @Override
+    public boolean allowsSplicing() {
+        return true;
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) throws Exception {
         if (packet instanceof S2CLoginDisconnectPacket loginDisconnectPacket) {
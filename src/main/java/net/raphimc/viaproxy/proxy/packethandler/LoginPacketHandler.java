@@ -20,10 +20,9 @@ package net.raphimc.viaproxy.proxy.packethandler;
 import com.mojang.authlib.GameProfile;
 import com.mojang.authlib.yggdrasil.ProfileResult;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import net.raphimc.netminecraft.constants.ConnectionState;
-import net.raphimc.netminecraft.constants.MCPipeline;
-import net.raphimc.netminecraft.netty.crypto.AESEncryption;
 import net.raphimc.netminecraft.netty.crypto.CryptUtil;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.netminecraft.packet.impl.login.C2SLoginHelloPacket;
@@ -37,11 +36,16 @@ import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.plugins.events.ClientLoggedInEvent;
 import net.raphimc.viaproxy.plugins.events.ShouldVerifyOnlineModeEvent;
 import net.raphimc.viaproxy.proxy.LoginState;
+import net.raphimc.viaproxy.proxy.client2proxy.HandshakeAdmissionHandler;
+import net.raphimc.viaproxy.proxy.encryption.CryptoExecutor;
+import net.raphimc.viaproxy.proxy.encryption.EncryptionCodec;
+import net.raphimc.viaproxy.proxy.external_interface.AuthExecutor;
 import net.raphimc.viaproxy.proxy.external_interface.AuthLibServices;
 import net.raphimc.viaproxy.proxy.external_interface.ExternalInterface;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
 import net.raphimc.viaproxy.proxy.util.ChannelUtil;
 import net.raphimc.viaproxy.proxy.util.CloseAndReturn;
+import net.raphimc.viaproxy.saves.impl.accounts.Account;
 import net.raphimc.viaproxy.util.logging.Logger;
 
 import javax.crypto.SecretKey;
@@ -53,15 +57,15 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 public class LoginPacketHandler extends PacketHandler {
 
     private static final KeyPair KEY_PAIR = CryptUtil.generateKeyPair();
     private static final Random RANDOM = new Random();
-    private static final ExecutorService HTTP_EXECUTOR = Executors.newWorkStealingPool(4);
 
     private final byte[] verifyToken = new byte[4];
     private LoginState loginState = LoginState.FIRST_PACKET;
@@ -72,6 +76,17 @@ public class LoginPacketHandler extends PacketHandler {
         RANDOM.nextBytes(this.verifyToken);
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.c2p(C2SLoginHelloPacket.class, C2SLoginKeyPacket.class);
+        routes.p2s(S2CLoginHelloPacket.class, S2CLoginGameProfilePacket.class);
+    }
+
+    @Override
+    public boolean allowsSplicing() {
+        return true;
+    }
+
     @Override
     public boolean handleC2P(Packet packet, List<ChannelFutureListener> listeners) throws GeneralSecurityException {
         if (packet instanceof C2SLoginHelloPacket loginHelloPacket) {
@@ -92,9 +107,7 @@ public class LoginPacketHandler extends PacketHandler {
             if (ViaProxy.getConfig().isProxyOnlineMode() && !ViaProxy.EVENT_MANAGER.call(new ShouldVerifyOnlineModeEvent(this.proxyConnection)).isCancelled()) {
                 this.proxyConnection.getC2P().writeAndFlush(new S2CLoginHelloPacket("", KEY_PAIR.getPublic().getEncoded(), this.verifyToken, true)).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
             } else {
-                ViaProxy.EVENT_MANAGER.call(new ClientLoggedInEvent(this.proxyConnection));
-                ExternalInterface.fillPlayerData(this.proxyConnection);
-                this.proxyConnection.getChannel().writeAndFlush(this.proxyConnection.getLoginHelloPacket()).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+                this.finishLogin();
             }
 
             return false;
@@ -102,49 +115,18 @@ public class LoginPacketHandler extends PacketHandler {
             if (this.loginState != LoginState.SENT_HELLO) throw CloseAndReturn.INSTANCE;
             this.loginState = LoginState.SENT_KEY;
 
-            if (loginKeyPacket.encryptedNonce != null) {
-                if (!Arrays.equals(this.verifyToken, CryptUtil.decryptData(KEY_PAIR.getPrivate(), loginKeyPacket.encryptedNonce))) {
-                    Logger.u_err("auth", this.proxyConnection, "Invalid verify token");
-                    this.proxyConnection.kickClient("§cInvalid verify token!");
-                }
-            } else {
-                final C2SLoginHelloPacket loginHelloPacket = this.proxyConnection.getLoginHelloPacket();
-                if (loginHelloPacket.key == null || !CryptUtil.verifySignedNonce(loginHelloPacket.key, this.verifyToken, loginKeyPacket.salt, loginKeyPacket.signature)) {
-                    Logger.u_err("auth", this.proxyConnection, "Invalid verify token");
-                    this.proxyConnection.kickClient("§cInvalid verify token!");
-                }
-            }
-
-            final SecretKey secretKey = CryptUtil.decryptSecretKey(KEY_PAIR.getPrivate(), loginKeyPacket.encryptedSecretKey);
-            this.proxyConnection.getC2P().attr(MCPipeline.ENCRYPTION_ATTRIBUTE_KEY).set(new AESEncryption(secretKey));
-
-            HTTP_EXECUTOR.submit(() -> {
-                final String userName = this.proxyConnection.getGameProfile().getName();
+            final Channel c2p = this.proxyConnection.getC2P();
+            ChannelUtil.disableAutoRead(c2p);
+            CryptoExecutor.supply(() -> this.decryptSecretKey(loginKeyPacket)).whenCompleteAsync((secretKey, t) -> {
                 try {
-                    final String serverHash = new BigInteger(CryptUtil.computeServerIdHash("", KEY_PAIR.getPublic(), secretKey)).toString(16);
-                    final ProfileResult profileResult = AuthLibServices.SESSION_SERVICE.hasJoinedServer(userName, serverHash, null);
-                    if (profileResult == null) {
-                        Logger.u_err("auth", this.proxyConnection, "Invalid session");
-                        this.proxyConnection.kickClient("§cInvalid session! Please restart minecraft (and the launcher) and try again.");
-                    } else {
-                        this.proxyConnection.setGameProfile(profileResult.profile());
-                    }
-                    Logger.u_info("auth", this.proxyConnection, "Authenticated as " + this.proxyConnection.getGameProfile().getId().toString());
-                } catch (CloseAndReturn ignored) {
+                    if (t != null) throw t;
+                    EncryptionCodec.enable(c2p, secretKey);
+                    ChannelUtil.restoreAutoRead(c2p);
+                    this.verifySession(secretKey);
                 } catch (Throwable e) {
-                    Logger.LOGGER.error("Failed to make session request for user '" + userName + "'!", e);
-                    try {
-                        this.proxyConnection.kickClient("§cFailed to authenticate with Mojang servers! Please try again later.");
-                    } catch (Throwable ignored) {
-                    }
+                    c2p.pipeline().fireExceptionCaught(e);
                 }
-
-                this.proxyConnection.getC2P().eventLoop().execute(() -> {
-                    ViaProxy.EVENT_MANAGER.call(new ClientLoggedInEvent(proxyConnection));
-                    ExternalInterface.fillPlayerData(this.proxyConnection);
-                    this.proxyConnection.getChannel().writeAndFlush(this.proxyConnection.getLoginHelloPacket()).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
-                });
-            });
+            }, c2p.eventLoop());
             return false;
         }
 
@@ -154,6 +136,7 @@ public class LoginPacketHandler extends PacketHandler {
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) throws GeneralSecurityException, ExecutionException, InterruptedException {
         if (packet instanceof S2CLoginHelloPacket loginHelloPacket) {
+            this.proxyConnection.getLoginTimer().mark("hello");
             final PublicKey publicKey = CryptUtil.decodeRsaPublicKey(loginHelloPacket.publicKey);
             final SecretKey secretKey = CryptUtil.generateSecretKey();
             final String serverHash = new BigInteger(CryptUtil.computeServerIdHash(loginHelloPacket.serverId, publicKey, secretKey)).toString(16);
@@ -162,31 +145,42 @@ public class LoginPacketHandler extends PacketHandler {
             if (auth && this.proxyConnection.getServerVersion().olderThanOrEqualTo(LegacyProtocolVersion.r1_6_4)) {
                 auth = this.proxyConnection.getUserConnection().get(ProtocolMetadataStorage.class).authenticate;
             }
-            if (auth) {
-                ExternalInterface.joinServer(serverHash, this.proxyConnection);
-            }
-
-            final byte[] encryptedSecretKey = CryptUtil.encryptData(publicKey, secretKey.getEncoded());
-            final byte[] encryptedNonce = CryptUtil.encryptData(publicKey, loginHelloPacket.nonce);
-
-            final C2SLoginKeyPacket loginKey = new C2SLoginKeyPacket(encryptedSecretKey, encryptedNonce);
-            if (this.proxyConnection.getServerVersion().betweenInclusive(ProtocolVersion.v1_19, ProtocolVersion.v1_19_1) && this.proxyConnection.getLoginHelloPacket().key != null) {
-                ExternalInterface.signNonce(loginHelloPacket.nonce, loginKey, this.proxyConnection);
-            }
-            this.proxyConnection.getChannel().writeAndFlush(loginKey).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
-
-            if (this.proxyConnection.getServerVersion().newerThanOrEqualTo(ProtocolVersion.v1_7_2)) {
-                this.proxyConnection.getChannel().attr(MCPipeline.ENCRYPTION_ATTRIBUTE_KEY).set(new AESEncryption(secretKey));
+            final Channel channel = this.proxyConnection.getChannel();
+            ChannelUtil.disableAutoRead(channel);
+            final CompletableFuture<Void> joinFuture;
+            if (auth) { // Join the server off the event loop
+                joinFuture = AuthExecutor.supply(() -> {
+                    ExternalInterface.joinServer(serverHash, this.proxyConnection);
+                    this.proxyConnection.getLoginTimer().mark("auth");
+                    return null;
+                });
             } else {
-                this.proxyConnection.setKeyForPreNettyEncryption(secretKey);
+                joinFuture = CompletableFuture.completedFuture(null);
             }
+            joinFuture.thenCompose(v -> CryptoExecutor.supply(() -> this.createLoginKey(loginHelloPacket, publicKey, secretKey))).whenCompleteAsync((loginKey, t) -> {
+                try {
+                    if (t instanceof CompletionException && t.getCause() != null) t = t.getCause();
+                    if (t instanceof RejectedExecutionException) {
+                        Logger.u_err("auth", this.proxyConnection, "Too many pending join requests");
+                        this.proxyConnection.kickClient("§cToo many players are logging in right now. Please try again in a couple of seconds.");
+                    } else if (t != null) {
+                        throw t;
+                    }
+                    this.sendLoginKey(loginKey, secretKey);
+                    ChannelUtil.restoreAutoRead(channel);
+                } catch (Throwable e) {
+                    channel.pipeline().fireExceptionCaught(e);
+                }
+            }, channel.eventLoop());
 
             return false;
         } else if (packet instanceof S2CLoginGameProfilePacket loginGameProfilePacket) {
             final ConnectionState nextState = this.proxyConnection.getClientVersion().newerThanOrEqualTo(ProtocolVersion.v1_20_2) ? ConnectionState.CONFIGURATION : ConnectionState.PLAY;
 
             this.proxyConnection.setGameProfile(new GameProfile(loginGameProfilePacket.uuid, loginGameProfilePacket.name));
-            Logger.u_info("session", this.proxyConnection, "Connected successfully! Switching to " + nextState + " state");
+            this.proxyConnection.getLoginTimer().mark("profile");
+            HandshakeAdmissionHandler.loginCompleted(this.proxyConnection.getC2P());
+            Logger.u_info("session", this.proxyConnection, "Connected successfully! Switching to " + nextState + " state (" + this.proxyConnection.getLoginTimer() + ")");
 
             ChannelUtil.disableAutoRead(this.proxyConnection.getChannel());
             listeners.add(f -> {
@@ -201,4 +195,98 @@ public class LoginPacketHandler extends PacketHandler {
         return true;
     }
 
+    private SecretKey decryptSecretKey(final C2SLoginKeyPacket loginKeyPacket) throws GeneralSecurityException {
+        if (loginKeyPacket.encryptedNonce != null) {
+            if (!Arrays.equals(this.verifyToken, CryptUtil.decryptData(KEY_PAIR.getPrivate(), loginKeyPacket.encryptedNonce))) {
+                Logger.u_err("auth", this.proxyConnection, "Invalid verify token");
+                this.proxyConnection.kickClient("§cInvalid verify token!");
+            }
+        } else {
+            final C2SLoginHelloPacket loginHelloPacket = this.proxyConnection.getLoginHelloPacket();
+            if (loginHelloPacket.key == null || !CryptUtil.verifySignedNonce(loginHelloPacket.key, this.verifyToken, loginKeyPacket.salt, loginKeyPacket.signature)) {
+                Logger.u_err("auth", this.proxyConnection, "Invalid verify token");
+                this.proxyConnection.kickClient("§cInvalid verify token!");
+            }
+        }
+
+        return CryptUtil.decryptSecretKey(KEY_PAIR.getPrivate(), loginKeyPacket.encryptedSecretKey);
+    }
+
+    private void verifySession(final SecretKey secretKey) {
+        final String userName = this.proxyConnection.getGameProfile().getName();
+        AuthExecutor.supply(() -> {
+            final String serverHash = new BigInteger(CryptUtil.computeServerIdHash("", KEY_PAIR.getPublic(), secretKey)).toString(16);
+            return AuthLibServices.SESSION_SERVICE.hasJoinedServer(userName, serverHash, null);
+        }).whenCompleteAsync((profileResult, t) -> {
+            try {
+                if (t instanceof RejectedExecutionException) {
+                    Logger.u_err("auth", this.proxyConnection, "Too many pending session requests");
+                    this.proxyConnection.kickClient("§cToo many players are logging in right now. Please try again in a couple of seconds.");
+                } else if (t != null) {
+                    Logger.LOGGER.error("Failed to make session request for user '" + userName + "'!", t);
+                    this.proxyConnection.kickClient("§cFailed to authenticate with Mojang servers! Please try again later.");
+                } else if (profileResult == null) {
+                    Logger.u_err("auth", this.proxyConnection, "Invalid session");
+                    this.proxyConnection.kickClient("§cInvalid session! Please restart minecraft (and the launcher) and try again.");
+                }
+                this.proxyConnection.setGameProfile(profileResult.profile());
+                Logger.u_info("auth", this.proxyConnection, "Authenticated as " + this.proxyConnection.getGameProfile().getId().toString());
+                this.finishLogin();
+            } catch (Throwable e) {
+                this.proxyConnection.getC2P().pipeline().fireExceptionCaught(e);
+            }
+        }, this.proxyConnection.getC2P().eventLoop());
+    }
+
+    private C2SLoginKeyPacket createLoginKey(final S2CLoginHelloPacket loginHelloPacket, final PublicKey publicKey, final SecretKey secretKey) throws GeneralSecurityException {
+        final byte[] encryptedSecretKey = CryptUtil.encryptData(publicKey, secretKey.getEncoded());
+        final byte[] encryptedNonce = CryptUtil.encryptData(publicKey, loginHelloPacket.nonce);
+
+        final C2SLoginKeyPacket loginKey = new C2SLoginKeyPacket(encryptedSecretKey, encryptedNonce);
+        if (this.proxyConnection.getServerVersion().betweenInclusive(ProtocolVersion.v1_19, ProtocolVersion.v1_19_1) && this.proxyConnection.getLoginHelloPacket().key != null) {
+            ExternalInterface.signNonce(loginHelloPacket.nonce, loginKey, this.proxyConnection);
+        }
+        return loginKey;
+    }
+
+    private void sendLoginKey(final C2SLoginKeyPacket loginKey, final SecretKey secretKey) {
+        this.proxyConnection.getChannel().writeAndFlush(loginKey).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+
+        if (this.proxyConnection.getServerVersion().newerThanOrEqualTo(ProtocolVersion.v1_7_2)) {
+            EncryptionCodec.enable(this.proxyConnection.getChannel(), secretKey);
+        } else {
+            this.proxyConnection.setKeyForPreNettyEncryption(secretKey);
+        }
+        this.proxyConnection.getLoginTimer().mark("encryption");
+    }
+
+    private void finishLogin() {
+        ViaProxy.EVENT_MANAGER.call(new ClientLoggedInEvent(this.proxyConnection));
+        final Account account = this.proxyConnection.getUserOptions().account();
+        if (account == null) {
+            this.sendLoginHello();
+            return;
+        }
+
+        AuthExecutor.supply(() -> { // Refreshing the account tokens might require requests to the authentication servers
+            ViaProxy.getSaveManager().accountsSave.ensureRefreshed(account);
+            return null;
+        }).whenCompleteAsync((v, t) -> {
+            try {
+                if (t != null) {
+                    Logger.LOGGER.error("Failed to refresh account", t);
+                    this.proxyConnection.kickClient("§cFailed to fill player data. This might be caused by outdated account tokens or rate limits. Wait a couple of seconds and try again. If the problem persists, remove and re-add your account.");
+                }
+                this.sendLoginHello();
+            } catch (Throwable e) {
+                this.proxyConnection.getC2P().pipeline().fireExceptionCaught(e);
+            }
+        }, this.proxyConnection.getC2P().eventLoop());
+    }
+
+    private void sendLoginHello() {
+        ExternalInterface.fillPlayerData(this.proxyConnection);
+        this.proxyConnection.getChannel().writeAndFlush(this.proxyConnection.getLoginHelloPacket()).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+    }
+
 }
@@ -0,0 +1,123 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.packethandler;
+
+import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectMap;
+import com.viaversion.viaversion.libs.fastutil.ints.Int2ObjectOpenHashMap;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.packet.Packet;
+import net.raphimc.netminecraft.packet.UnknownPacket;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routing tables which map a received packet to the {@link PacketHandler}s which declared interest in it.<br>
+ * The resolved handler arrays are cached per connection state and packet class/id, so forwarding a packet no handler cares about doesn't call any handler.<br>
+ * Each direction is only accessed from the event loop of the channel which reads the packets.
+ */
+public class PacketDispatcher {
+
+    private static final PacketHandler[] EMPTY = new PacketHandler[0];
+
+    private final int handlersModCount;
+    private final Direction c2p;
+    private final Direction p2s;
+
+    public PacketDispatcher(final List<PacketHandler> packetHandlers, final int handlersModCount) {
+        this.handlersModCount = handlersModCount;
+
+        final PacketHandler[] handlers = packetHandlers.toArray(new PacketHandler[0]);
+        final PacketRoutes.Route[] c2pRoutes = new PacketRoutes.Route[handlers.length];
+        final PacketRoutes.Route[] p2sRoutes = new PacketRoutes.Route[handlers.length];
+        for (int i = 0; i < handlers.length; i++) {
+            final PacketRoutes routes = new PacketRoutes();
+            handlers[i].registerRoutes(routes);
+            c2pRoutes[i] = routes.c2p;
+            p2sRoutes[i] = routes.p2s;
+        }
+        this.c2p = new Direction(handlers, c2pRoutes);
+        this.p2s = new Direction(handlers, p2sRoutes);
+    }
+
+    public PacketHandler[] getC2PHandlers(final Packet packet, final ConnectionState connectionState) {
+        return this.c2p.getHandlers(packet, connectionState);
+    }
+
+    public PacketHandler[] getP2SHandlers(final Packet packet, final ConnectionState connectionState) {
+        return this.p2s.getHandlers(packet, connectionState);
+    }
+
+    public boolean isOutdated(final int handlersModCount) {
+        return this.handlersModCount != handlersModCount;
+    }
+
+    private static class Direction {
+
+        private final PacketHandler[] handlers;
+        private final PacketRoutes.Route[] routes;
+        private final Map<Class<? extends Packet>, PacketHandler[]>[] classCache;
+        private final Int2ObjectMap<PacketHandler[]>[] unknownPacketCache;
+
+        @SuppressWarnings("unchecked")
+        private Direction(final PacketHandler[] handlers, final PacketRoutes.Route[] routes) {
+            this.handlers = handlers;
+            this.routes = routes;
+            this.classCache = new Map[ConnectionState.values().length];
+            this.unknownPacketCache = new Int2ObjectMap[ConnectionState.values().length];
+            for (int i = 0; i < this.classCache.length; i++) {
+                this.classCache[i] = new IdentityHashMap<>();
+                this.unknownPacketCache[i] = new Int2ObjectOpenHashMap<>();
+            }
+        }
+
+        private PacketHandler[] getHandlers(final Packet packet, final ConnectionState connectionState) {
+            if (packet instanceof UnknownPacket unknownPacket) {
+                final Int2ObjectMap<PacketHandler[]> cache = this.unknownPacketCache[connectionState.ordinal()];
+                PacketHandler[] handlers = cache.get(unknownPacket.packetId);
+                if (handlers == null) {
+                    handlers = this.resolve(UnknownPacket.class, unknownPacket.packetId, connectionState);
+                    cache.put(unknownPacket.packetId, handlers);
+                }
+                return handlers;
+            } else {
+                final Map<Class<? extends Packet>, PacketHandler[]> cache = this.classCache[connectionState.ordinal()];
+                PacketHandler[] handlers = cache.get(packet.getClass());
+                if (handlers == null) {
+                    handlers = this.resolve(packet.getClass(), -1, connectionState);
+                    cache.put(packet.getClass(), handlers);
+                }
+                return handlers;
+            }
+        }
+
+        private PacketHandler[] resolve(final Class<? extends Packet> packetClass, final int unknownPacketId, final ConnectionState connectionState) {
+            final List<PacketHandler> handlers = new ArrayList<>();
+            for (int i = 0; i < this.handlers.length; i++) {
+                if (this.routes[i].matches(packetClass, unknownPacketId, connectionState)) {
+                    handlers.add(this.handlers[i]);
+                }
+            }
+            return handlers.isEmpty() ? EMPTY : handlers.toArray(new PacketHandler[0]);
+        }
+
+    }
+
+}
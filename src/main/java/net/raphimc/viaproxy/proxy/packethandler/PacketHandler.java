@@ -31,6 +31,26 @@ public abstract class PacketHandler {
         this.proxyConnection = proxyConnection;
     }
 
+    /**
+     * Declares which packets should be passed to {@link #handleC2P} and {@link #handleP2S}.<br>
+     * Packets which aren't routed to any handler are forwarded directly. Handlers which don't override this method receive all packets.
+     *
+     * @param routes The routes of this handler
+     */
+    public void registerRoutes(final PacketRoutes routes) {
+        routes.all();
+    }
+
+    /**
+     * Called before the connection gets spliced. A spliced connection forwards raw bytes in both directions without decoding any packets anymore.<br>
+     * Handlers which still need to see or send packets must return false.
+     *
+     * @return Whether the connection can be spliced
+     */
+    public boolean allowsSplicing() {
+        return false;
+    }
+
     public boolean handleC2P(final Packet packet, final List<ChannelFutureListener> listeners) throws Exception {
         return true;
     }
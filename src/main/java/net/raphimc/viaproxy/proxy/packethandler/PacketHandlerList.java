@@ -0,0 +1,37 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.packethandler;
+
+import java.util.ArrayList;
+
+/**
+ * Packet handler list which exposes its modification count, so the {@link PacketDispatcher} can detect handlers added or removed after it was built.
+ */
+public class PacketHandlerList extends ArrayList<PacketHandler> {
+
+    @Override
+    public PacketHandler set(final int index, final PacketHandler element) {
+        this.modCount++;
+        return super.set(index, element);
+    }
+
+    public int getModCount() {
+        return this.modCount;
+    }
+
+}
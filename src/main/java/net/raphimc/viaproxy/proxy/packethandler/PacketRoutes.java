@@ -0,0 +1,132 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.packethandler;
+
+import com.viaversion.viaversion.libs.fastutil.ints.IntOpenHashSet;
+import com.viaversion.viaversion.libs.fastutil.ints.IntSet;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.packet.Packet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Declares which packets a {@link PacketHandler} wants to receive. See {@link PacketHandler#registerRoutes(PacketRoutes)}.
+ */
+public class PacketRoutes {
+
+    final Route c2p = new Route();
+    final Route p2s = new Route();
+
+    /**
+     * Routes all packets in both directions to the handler.
+     */
+    public PacketRoutes all() {
+        this.c2p.all = true;
+        this.p2s.all = true;
+        return this;
+    }
+
+    /**
+     * Routes all client to proxy packets of the given types (and their subtypes) to the handler, regardless of the connection state.
+     */
+    @SafeVarargs
+    public final PacketRoutes c2p(final Class<? extends Packet>... packetClasses) {
+        Collections.addAll(this.c2p.packetClasses, packetClasses);
+        return this;
+    }
+
+    /**
+     * Routes all proxy to server packets of the given types (and their subtypes) to the handler, regardless of the connection state.
+     */
+    @SafeVarargs
+    public final PacketRoutes p2s(final Class<? extends Packet>... packetClasses) {
+        Collections.addAll(this.p2s.packetClasses, packetClasses);
+        return this;
+    }
+
+    /**
+     * Routes client to proxy packets which are not handled by a specific packet class (UnknownPacket) to the handler.
+     */
+    public PacketRoutes c2p(final ConnectionState connectionState, final int... packetIds) {
+        this.c2p.addPacketIds(connectionState, packetIds);
+        return this;
+    }
+
+    /**
+     * Routes proxy to server packets which are not handled by a specific packet class (UnknownPacket) to the handler.
+     */
+    public PacketRoutes p2s(final ConnectionState connectionState, final int... packetIds) {
+        this.p2s.addPacketIds(connectionState, packetIds);
+        return this;
+    }
+
+    /**
+     * Routes all client to proxy packets received in the given connection state to the handler.
+     */
+    public PacketRoutes c2pAll(final ConnectionState connectionState) {
+        this.c2p.states.add(connectionState);
+        return this;
+    }
+
+    /**
+     * Routes all proxy to server packets received in the given connection state to the handler.
+     */
+    public PacketRoutes p2sAll(final ConnectionState connectionState) {
+        this.p2s.states.add(connectionState);
+        return this;
+    }
+
+    static class Route {
+
+        private final List<Class<? extends Packet>> packetClasses = new ArrayList<>();
+        private final Map<ConnectionState, IntSet> packetIds = new EnumMap<>(ConnectionState.class);
+        private final Set<ConnectionState> states = EnumSet.noneOf(ConnectionState.class);
+        private boolean all;
+
+        private void addPacketIds(final ConnectionState connectionState, final int... packetIds) {
+            final IntSet ids = this.packetIds.computeIfAbsent(connectionState, k -> new IntOpenHashSet());
+            for (int packetId : packetIds) {
+                ids.add(packetId);
+            }
+        }
+
+        boolean matches(final Class<? extends Packet> packetClass, final int unknownPacketId, final ConnectionState connectionState) {
+            if (this.all || this.states.contains(connectionState)) {
+                return true;
+            }
+            for (Class<? extends Packet> routedClass : this.packetClasses) {
+                if (routedClass.isAssignableFrom(packetClass)) {
+                    return true;
+                }
+            }
+            if (unknownPacketId != -1) {
+                final IntSet ids = this.packetIds.get(connectionState);
+                return ids != null && ids.contains(unknownPacketId);
+            }
+            return false;
+        }
+
+    }
+
+}
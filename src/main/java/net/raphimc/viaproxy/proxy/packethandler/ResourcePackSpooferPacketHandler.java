@@ -41,6 +41,11 @@ public class ResourcePackSpooferPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.p2s(S2CResourcePackPushPacket.class, S2CResourcePackPopPacket.class, S2CResourcePackPacket.class);
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) {
         if (packet instanceof S2CResourcePackPushPacket resourcePackPushPacket) {
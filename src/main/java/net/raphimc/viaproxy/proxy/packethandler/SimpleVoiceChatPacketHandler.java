@@ -39,6 +39,11 @@ public class SimpleVoiceChatPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.p2s(S2CCustomPayloadPacket.class);
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) throws Exception {
         if (packet instanceof S2CCustomPayloadPacket customPayloadPacket) {
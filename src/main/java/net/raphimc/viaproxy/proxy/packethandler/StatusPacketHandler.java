@@ -25,6 +25,7 @@ import net.raphimc.netminecraft.packet.impl.status.S2CStatusPongResponsePacket;
 import net.raphimc.netminecraft.packet.impl.status.S2CStatusResponsePacket;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.proxy.util.StatusResponseCache;
 
 import java.util.List;
 
@@ -34,17 +35,30 @@ public class StatusPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.p2s(S2CStatusResponsePacket.class, S2CStatusPongResponsePacket.class);
+    }
+
+    @Override
+    public boolean allowsSplicing() {
+        return true;
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) {
         if (packet instanceof S2CStatusPongResponsePacket) {
             listeners.add(ChannelFutureListener.CLOSE);
-        } else if (packet instanceof S2CStatusResponsePacket statusResponsePacket && !ViaProxy.getConfig().getCustomMotd().isBlank()) {
-            try {
-                final JsonObject obj = JsonParser.parseString(statusResponsePacket.statusJson).getAsJsonObject();
-                obj.addProperty("description", ViaProxy.getConfig().getCustomMotd());
-                statusResponsePacket.statusJson = obj.toString();
-            } catch (Throwable ignored) {
+        } else if (packet instanceof S2CStatusResponsePacket statusResponsePacket) {
+            if (!ViaProxy.getConfig().getCustomMotd().isBlank()) {
+                try {
+                    final JsonObject obj = JsonParser.parseString(statusResponsePacket.statusJson).getAsJsonObject();
+                    obj.addProperty("description", ViaProxy.getConfig().getCustomMotd());
+                    statusResponsePacket.statusJson = obj.toString();
+                } catch (Throwable ignored) {
+                }
             }
+            StatusResponseCache.put(this.proxyConnection.getServerAddress(), this.proxyConnection.getServerVersion(), this.proxyConnection.getClientVersion(), this.proxyConnection.getClientHandshakeAddress(), statusResponsePacket.statusJson);
         }
 
         return true;
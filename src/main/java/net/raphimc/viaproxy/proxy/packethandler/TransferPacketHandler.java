@@ -20,10 +20,10 @@ package net.raphimc.viaproxy.proxy.packethandler;
 import io.netty.channel.ChannelFutureListener;
 import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.netminecraft.packet.impl.common.S2CTransferPacket;
-import net.raphimc.netminecraft.util.MinecraftServerAddress;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
 import net.raphimc.viaproxy.proxy.util.TransferDataHolder;
+import net.raphimc.viaproxy.util.ServerAddressResolver;
 import net.raphimc.viaproxy.util.logging.Logger;
 
 import java.net.InetSocketAddress;
@@ -35,11 +35,16 @@ public class TransferPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.p2s(S2CTransferPacket.class);
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) {
         if (packet instanceof S2CTransferPacket transferPacket) {
-            final InetSocketAddress newAddress = MinecraftServerAddress.ofResolved(transferPacket.host, transferPacket.port);
-            TransferDataHolder.addTempRedirect(this.proxyConnection.getC2P(), newAddress);
+            ServerAddressResolver.resolve(transferPacket.host, transferPacket.port, true); // Resolved while the client reconnects
+            TransferDataHolder.addTempRedirect(this.proxyConnection.getC2P(), InetSocketAddress.createUnresolved(transferPacket.host, transferPacket.port));
 
             if (this.proxyConnection.getClientHandshakeAddress() != null) {
                 transferPacket.host = this.proxyConnection.getClientHandshakeAddress().getHost();
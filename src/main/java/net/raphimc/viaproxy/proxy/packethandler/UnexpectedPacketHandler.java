@@ -30,6 +30,16 @@ public class UnexpectedPacketHandler extends PacketHandler {
         super(proxyConnection);
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.c2pAll(ConnectionState.HANDSHAKING);
+    }
+
+    @Override
+    public boolean allowsSplicing() {
+        return true;
+    }
+
     @Override
     public boolean handleC2P(Packet packet, List<ChannelFutureListener> listeners) {
         final ConnectionState connectionState = this.proxyConnection.getC2pConnectionState();
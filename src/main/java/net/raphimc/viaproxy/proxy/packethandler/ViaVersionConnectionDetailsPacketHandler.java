@@ -37,6 +37,11 @@ public class ViaVersionConnectionDetailsPacketHandler extends PacketHandler {
         this.joinGameId = MCPackets.S2C_LOGIN.getId(this.proxyConnection.getClientVersion().getVersion());
     }
 
+    @Override
+    public void registerRoutes(PacketRoutes routes) {
+        routes.p2s(ConnectionState.PLAY, this.joinGameId);
+    }
+
     @Override
     public boolean handleP2S(Packet packet, List<ChannelFutureListener> listeners) {
         if (packet instanceof UnknownPacket unknownPacket && this.proxyConnection.getP2sConnectionState() == ConnectionState.PLAY) {
@@ -23,6 +23,7 @@ import com.viaversion.viaversion.connection.UserConnectionImpl;
 import com.viaversion.viaversion.protocol.ProtocolPipelineImpl;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.handler.codec.haproxy.HAProxyMessageEncoder;
 import net.raphimc.netminecraft.constants.MCPipeline;
 import net.raphimc.netminecraft.netty.codec.NoReadFlowControlHandler;
@@ -33,7 +34,12 @@ import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.plugins.events.Proxy2ServerChannelInitializeEvent;
 import net.raphimc.viaproxy.plugins.events.types.ITyped;
 import net.raphimc.viaproxy.protocoltranslator.impl.ViaProxyVLPipeline;
+import net.raphimc.viaproxy.proxy.compression.CompressionCodec;
+import net.raphimc.viaproxy.proxy.compression.CompressionEngines;
+import net.raphimc.viaproxy.proxy.encryption.EncryptionCodec;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.proxy.util.IdleReaper;
+import net.raphimc.viaproxy.proxy.util.RawPacketForwarder;
 
 import java.util.function.Supplier;
 
@@ -52,6 +58,7 @@ public class Proxy2ServerChannelInitializer extends MinecraftChannelInitializer
             channel.close();
             return;
         }
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(ViaProxy.getConfig().getBackendWriteBufferLowWaterMark(), ViaProxy.getConfig().getBackendWriteBufferHighWaterMark()));
 
         final ProxyConnection proxyConnection = ProxyConnection.fromChannel(channel);
 
@@ -68,12 +75,21 @@ public class Proxy2ServerChannelInitializer extends MinecraftChannelInitializer
         final UserConnection user = new UserConnectionImpl(channel, true);
         new ProtocolPipelineImpl(user);
         proxyConnection.setUserConnection(user);
-        channel.pipeline().addLast(new ViaProxyVLPipeline(user));
-        channel.pipeline().addAfter(VLPipeline.VIA_CODEC_NAME, "via-" + MCPipeline.FLOW_CONTROL_HANDLER_NAME, new NoReadFlowControlHandler());
+        if (proxyConnection.useSameVersionFastPath()) { // No protocol translation needed
+            channel.pipeline().addBefore(MCPipeline.PACKET_CODEC_HANDLER_NAME, "via-" + MCPipeline.FLOW_CONTROL_HANDLER_NAME, new NoReadFlowControlHandler());
+            RawPacketForwarder.install(channel, proxyConnection, false);
+        } else {
+            channel.pipeline().addLast(new ViaProxyVLPipeline(user));
+            channel.pipeline().addAfter(VLPipeline.VIA_CODEC_NAME, "via-" + MCPipeline.FLOW_CONTROL_HANDLER_NAME, new NoReadFlowControlHandler());
+        }
         if (proxyConnection.getServerVersion().equals(BedrockProtocolVersion.bedrockLatest)) {
             channel.pipeline().remove(MCPipeline.COMPRESSION_HANDLER_NAME);
             channel.pipeline().remove(MCPipeline.ENCRYPTION_HANDLER_NAME);
+        } else {
+            channel.pipeline().replace(MCPipeline.COMPRESSION_HANDLER_NAME, MCPipeline.COMPRESSION_HANDLER_NAME, new CompressionCodec(CompressionEngines.getConfigured(), ViaProxy.getConfig().getBackendCompressionLevel()));
+            EncryptionCodec.install(channel);
         }
+        channel.pipeline().addFirst(IdleReaper.IDLE_REAPER_HANDLER_NAME, new IdleReaper(false));
 
         if (ViaProxy.EVENT_MANAGER.call(new Proxy2ServerChannelInitializeEvent(ITyped.Type.POST, channel, false)).isCancelled()) {
             channel.close();
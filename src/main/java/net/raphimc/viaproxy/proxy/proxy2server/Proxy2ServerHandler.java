@@ -26,13 +26,21 @@ import net.raphimc.netminecraft.packet.Packet;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.proxy.packethandler.PacketHandler;
 import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.proxy.util.ChannelUtil;
 import net.raphimc.viaproxy.proxy.util.ExceptionUtil;
+import net.raphimc.viaproxy.proxy.util.FlushConsolidator;
+import net.raphimc.viaproxy.util.Metrics;
 import net.raphimc.viaproxy.util.logging.Logger;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Proxy2ServerHandler extends SimpleChannelInboundHandler<Packet> {
 
+    private static final LongAdder CLIENT_READ_PAUSES = Metrics.counter("backpressure.client_read_pauses");
+    private static final LongAdder CLIENT_READ_PAUSED_MILLIS = Metrics.counter("backpressure.client_read_paused_ms");
+
     private ProxyConnection proxyConnection;
 
     @Override
@@ -59,13 +67,47 @@ public class Proxy2ServerHandler extends SimpleChannelInboundHandler<Packet> {
     protected void channelRead0(ChannelHandlerContext ctx, Packet packet) throws Exception {
         if (this.proxyConnection.isClosed()) return;
 
-        final List<ChannelFutureListener> listeners = Lists.newArrayList(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
-        for (PacketHandler packetHandler : this.proxyConnection.getPacketHandlers()) {
-            if (!packetHandler.handleP2S(packet, listeners)) {
-                return;
+        final FlushConsolidator c2pFlusher = this.proxyConnection.getC2pFlushConsolidator();
+        final PacketHandler[] packetHandlers = this.proxyConnection.getPacketDispatcher().getP2SHandlers(packet, this.proxyConnection.getP2sConnectionState());
+        if (packetHandlers.length == 0) {
+            c2pFlusher.write(packet).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        } else {
+            final List<ChannelFutureListener> listeners = Lists.newArrayList(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            for (PacketHandler packetHandler : packetHandlers) {
+                if (!packetHandler.handleP2S(packet, listeners)) {
+                    return;
+                }
+            }
+            c2pFlusher.write(packet).addListeners(listeners.toArray(new ChannelFutureListener[0]));
+        }
+        if (!ctx.channel().config().isAutoRead()) { // The read batch might not complete until the client responded, so flush now
+            c2pFlusher.flush();
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        this.proxyConnection.getC2pFlushConsolidator().flush();
+        if (this.proxyConnection.getConnectionSplicer() != null) {
+            this.proxyConnection.getConnectionSplicer().trySplice(ctx.channel());
+        }
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (!ctx.channel().isWritable()) {
+            ctx.channel().flush(); // Make sure that consolidated packets can drain
+            if (ChannelUtil.pauseReads(this.proxyConnection.getC2P())) { // Stop reading from the client until the server caught up
+                CLIENT_READ_PAUSES.increment();
+            }
+        } else {
+            final long pausedTime = ChannelUtil.resumeReads(this.proxyConnection.getC2P());
+            if (pausedTime != -1) {
+                CLIENT_READ_PAUSED_MILLIS.add(TimeUnit.NANOSECONDS.toMillis(pausedTime));
             }
         }
-        this.proxyConnection.getC2P().writeAndFlush(packet).addListeners(listeners.toArray(new ChannelFutureListener[0]));
+        super.channelWritabilityChanged(ctx);
     }
 
     @Override
@@ -26,6 +26,7 @@ import io.netty.util.AttributeKey;
 import net.raphimc.netminecraft.netty.connection.NetClient;
 import net.raphimc.netminecraft.util.TransportType;
 import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.proxy.util.TransportUtil;
 
 import java.net.SocketAddress;
 
@@ -49,12 +50,18 @@ public class LegacyProxyConnection extends NetClient {
     public void initialize(final TransportType transportType, final Bootstrap bootstrap) {
         bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, ViaProxy.getConfig().getConnectTimeout());
         bootstrap.attr(LEGACY_PROXY_CONNECTION_ATTRIBUTE_KEY, this);
+        final ChannelFuture channelFuture = TransportUtil.registerColocated(bootstrap, transportType, this.c2p, this.channelInitializer);
+        if (channelFuture != null) {
+            this.channelFuture = channelFuture;
+            return;
+        }
         super.initialize(transportType, bootstrap);
     }
 
     @Override
     public ChannelFuture connect(final SocketAddress serverAddress) {
         this.serverAddress = serverAddress;
+        if (this.channelFuture == null) this.initialize(TransportUtil.getTransportType(serverAddress), new Bootstrap());
         return super.connect(serverAddress);
     }
 
@@ -29,7 +29,6 @@ import net.lenni0451.mcstructs.text.components.StringComponent;
 import net.raphimc.netminecraft.constants.ConnectionState;
 import net.raphimc.netminecraft.constants.MCPipeline;
 import net.raphimc.netminecraft.netty.connection.NetClient;
-import net.raphimc.netminecraft.netty.crypto.AESEncryption;
 import net.raphimc.netminecraft.packet.impl.configuration.S2CConfigDisconnectPacket;
 import net.raphimc.netminecraft.packet.impl.login.C2SLoginHelloPacket;
 import net.raphimc.netminecraft.packet.impl.login.S2CLoginDisconnectPacket;
@@ -39,14 +38,20 @@ import net.raphimc.netminecraft.packet.registry.DefaultPacketRegistry;
 import net.raphimc.netminecraft.util.TransportType;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.cli.ConsoleFormatter;
+import net.raphimc.viaproxy.proxy.encryption.EncryptionCodec;
+import net.raphimc.viaproxy.proxy.packethandler.PacketDispatcher;
 import net.raphimc.viaproxy.proxy.packethandler.PacketHandler;
+import net.raphimc.viaproxy.proxy.packethandler.PacketHandlerList;
 import net.raphimc.viaproxy.proxy.util.CloseAndReturn;
+import net.raphimc.viaproxy.proxy.util.ConnectionSplicer;
+import net.raphimc.viaproxy.proxy.util.FlushConsolidator;
+import net.raphimc.viaproxy.proxy.util.LoginTimer;
+import net.raphimc.viaproxy.proxy.util.TransportUtil;
 import net.raphimc.viaproxy.util.logging.Logger;
 
 import java.net.SocketAddress;
 import java.security.GeneralSecurityException;
 import java.security.Key;
-import java.util.ArrayList;
 import java.util.List;
 
 public class ProxyConnection extends NetClient {
@@ -54,7 +59,12 @@ public class ProxyConnection extends NetClient {
     public static final AttributeKey<ProxyConnection> PROXY_CONNECTION_ATTRIBUTE_KEY = AttributeKey.valueOf("proxy_connection");
 
     private final Channel c2p;
-    private final List<PacketHandler> packetHandlers = new ArrayList<>();
+    private final PacketHandlerList packetHandlers = new PacketHandlerList();
+    private PacketDispatcher packetDispatcher;
+    private FlushConsolidator c2pFlushConsolidator;
+    private FlushConsolidator p2sFlushConsolidator;
+    private ConnectionSplicer connectionSplicer;
+    private final LoginTimer loginTimer = new LoginTimer();
 
     private SocketAddress serverAddress;
 
@@ -95,12 +105,18 @@ public class ProxyConnection extends NetClient {
     public void initialize(final TransportType transportType, final Bootstrap bootstrap) {
         bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, ViaProxy.getConfig().getConnectTimeout());
         bootstrap.attr(PROXY_CONNECTION_ATTRIBUTE_KEY, this);
+        final ChannelFuture channelFuture = TransportUtil.registerColocated(bootstrap, transportType, this.c2p, this.channelInitializer);
+        if (channelFuture != null) {
+            this.channelFuture = channelFuture;
+            return;
+        }
         super.initialize(transportType, bootstrap);
     }
 
     public ChannelFuture connectToServer(final SocketAddress serverAddress, final ProtocolVersion targetVersion) {
         this.serverAddress = serverAddress;
         this.serverVersion = targetVersion;
+        if (this.channelFuture == null) this.initialize(TransportUtil.getTransportType(serverAddress), new Bootstrap());
         return super.connect(serverAddress);
     }
 
@@ -112,6 +128,50 @@ public class ProxyConnection extends NetClient {
         return this.packetHandlers;
     }
 
+    public PacketDispatcher getPacketDispatcher() {
+        PacketDispatcher packetDispatcher = this.packetDispatcher;
+        if (packetDispatcher == null || packetDispatcher.isOutdated(this.packetHandlers.getModCount())) {
+            this.packetDispatcher = packetDispatcher = new PacketDispatcher(this.packetHandlers, this.packetHandlers.getModCount());
+        }
+        return packetDispatcher;
+    }
+
+    /**
+     * @return The flush consolidator for packets sent to the client. Must only be used from the event loop of the server channel.
+     */
+    public FlushConsolidator getC2pFlushConsolidator() {
+        if (this.c2pFlushConsolidator == null) {
+            this.c2pFlushConsolidator = new FlushConsolidator(this.c2p);
+        }
+        return this.c2pFlushConsolidator;
+    }
+
+    /**
+     * @return The flush consolidator for packets sent to the server. Must only be used from the event loop of the client channel.
+     */
+    public FlushConsolidator getP2sFlushConsolidator() {
+        if (this.p2sFlushConsolidator == null) {
+            this.p2sFlushConsolidator = new FlushConsolidator(this.getChannel());
+        }
+        return this.p2sFlushConsolidator;
+    }
+
+    public ConnectionSplicer getConnectionSplicer() {
+        return this.connectionSplicer;
+    }
+
+    public void setConnectionSplicer(final ConnectionSplicer connectionSplicer) {
+        this.connectionSplicer = connectionSplicer;
+    }
+
+    public LoginTimer getLoginTimer() {
+        return this.loginTimer;
+    }
+
+    public boolean useSameVersionFastPath() {
+        return ViaProxy.getConfig().shouldUseSameVersionFastPath() && this.clientVersion.equals(this.serverVersion);
+    }
+
     public <T> T getPacketHandler(final Class<T> packetHandlerType) {
         for (final PacketHandler packetHandler : this.packetHandlers) {
             if (packetHandlerType.isInstance(packetHandler)) {
@@ -167,7 +227,7 @@ public class ProxyConnection extends NetClient {
     }
 
     public void enablePreNettyEncryption() throws GeneralSecurityException {
-        this.getChannel().attr(MCPipeline.ENCRYPTION_ATTRIBUTE_KEY).set(new AESEncryption(this.storedSecretKey));
+        EncryptionCodec.enable(this.getChannel(), this.storedSecretKey);
     }
 
     public UserConnection getUserConnection() {
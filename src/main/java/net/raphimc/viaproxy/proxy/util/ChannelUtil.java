@@ -18,6 +18,7 @@
 package net.raphimc.viaproxy.proxy.util;
 
 import io.netty.channel.Channel;
+import io.netty.util.Attribute;
 import io.netty.util.AttributeKey;
 
 import java.util.Stack;
@@ -25,24 +26,91 @@ import java.util.Stack;
 public class ChannelUtil {
 
     private static final AttributeKey<Stack<Boolean>> LAST_AUTO_READ = AttributeKey.valueOf("last-auto-read");
+    private static final AttributeKey<ReadPause> READ_PAUSE = AttributeKey.valueOf("read-pause");
 
     public static void disableAutoRead(final Channel channel) {
-        if (channel.attr(LAST_AUTO_READ).get() == null) {
-            channel.attr(LAST_AUTO_READ).set(new Stack<>());
-        }
+        final Attribute<ReadPause> readPause = channel.attr(READ_PAUSE);
+        synchronized (readPause) {
+            if (channel.attr(LAST_AUTO_READ).get() == null) {
+                channel.attr(LAST_AUTO_READ).set(new Stack<>());
+            }
 
-        channel.attr(LAST_AUTO_READ).get().push(channel.config().isAutoRead());
-        channel.config().setAutoRead(false);
+            channel.attr(LAST_AUTO_READ).get().push(isAutoRead(channel, readPause));
+            setAutoRead(channel, readPause, false);
+        }
     }
 
     public static void restoreAutoRead(final Channel channel) {
-        if (channel.attr(LAST_AUTO_READ).get() == null) {
-            throw new IllegalStateException("Tried to restore auto read, but it was never disabled");
+        final Attribute<ReadPause> readPause = channel.attr(READ_PAUSE);
+        synchronized (readPause) {
+            if (channel.attr(LAST_AUTO_READ).get() == null) {
+                throw new IllegalStateException("Tried to restore auto read, but it was never disabled");
+            }
+            if (isAutoRead(channel, readPause)) {
+                throw new IllegalStateException("Race condition detected: Auto read has been enabled somewhere else");
+            }
+            setAutoRead(channel, readPause, channel.attr(LAST_AUTO_READ).get().pop());
+        }
+    }
+
+    /**
+     * Stops reading from the channel until {@link #resumeReads(Channel)} is called. This is independent of {@link #disableAutoRead(Channel)} and {@link #restoreAutoRead(Channel)}, which can still be used while reads are paused.
+     *
+     * @param channel The channel
+     * @return true if the reads have been paused, false if they already were paused
+     */
+    public static boolean pauseReads(final Channel channel) {
+        final Attribute<ReadPause> readPause = channel.attr(READ_PAUSE);
+        synchronized (readPause) {
+            if (readPause.get() != null) return false;
+
+            readPause.set(new ReadPause(channel.config().isAutoRead(), System.nanoTime()));
+            channel.config().setAutoRead(false);
+            return true;
+        }
+    }
+
+    /**
+     * Resumes reading from the channel after it has been paused by {@link #pauseReads(Channel)}.
+     *
+     * @param channel The channel
+     * @return The time in nanoseconds the reads have been paused or -1 if they weren't paused
+     */
+    public static long resumeReads(final Channel channel) {
+        final Attribute<ReadPause> readPause = channel.attr(READ_PAUSE);
+        synchronized (readPause) {
+            final ReadPause pause = readPause.getAndSet(null);
+            if (pause == null) return -1;
+
+            channel.config().setAutoRead(pause.autoRead);
+            return System.nanoTime() - pause.startTime;
         }
-        if (channel.config().isAutoRead()) {
-            throw new IllegalStateException("Race condition detected: Auto read has been enabled somewhere else");
+    }
+
+    private static boolean isAutoRead(final Channel channel, final Attribute<ReadPause> readPause) {
+        final ReadPause pause = readPause.get();
+        return pause != null ? pause.autoRead : channel.config().isAutoRead();
+    }
+
+    private static void setAutoRead(final Channel channel, final Attribute<ReadPause> readPause, final boolean autoRead) {
+        final ReadPause pause = readPause.get();
+        if (pause != null) { // Applied once the reads are resumed
+            pause.autoRead = autoRead;
+        } else {
+            channel.config().setAutoRead(autoRead);
+        }
+    }
+
+    private static class ReadPause {
+
+        private final long startTime;
+        private boolean autoRead;
+
+        private ReadPause(final boolean autoRead, final long startTime) {
+            this.autoRead = autoRead;
+            this.startTime = startTime;
         }
-        channel.config().setAutoRead(channel.attr(LAST_AUTO_READ).get().pop());
+
     }
 
 }
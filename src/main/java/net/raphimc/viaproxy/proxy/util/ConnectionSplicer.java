@@ -0,0 +1,258 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.packet.PacketTypes;
+import net.raphimc.viaproxy.proxy.encryption.EncryptionCodec;
+import net.raphimc.viaproxy.proxy.packethandler.PacketHandler;
+import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.util.Metrics;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bridges the client and server channel on the transport level once nothing has to be decoded anymore.<br>
+ * Each direction gets spliced on its own event loop by replacing the frame decoder with a handler that forwards the raw bytes to the other channel.
+ * The remaining codec handlers of a channel are removed once both directions are spliced, because they are needed to encode the packets of the other direction until then.
+ */
+public class ConnectionSplicer {
+
+    public static final String SPLICE_HANDLER_NAME = "viaproxy-splice";
+
+    private static final LongAdder SPLICED_CONNECTIONS = Metrics.counter("splice.connections");
+    private static final LongAdder SPLICED_BYTES = Metrics.counter("splice.bytes");
+
+    private final ProxyConnection proxyConnection;
+    private volatile boolean splicing;
+    private volatile boolean spliceFailed;
+
+    // Only accessed from the event loop of the respective channel
+    private boolean c2pSpliced;
+    private boolean p2sSpliced;
+    private boolean c2pPeerSpliced;
+    private boolean p2sPeerSpliced;
+
+    public ConnectionSplicer(final ProxyConnection proxyConnection) {
+        this.proxyConnection = proxyConnection;
+    }
+
+    /**
+     * Splices the direction of the given channel if possible. Must be called from the event loop of the channel after a read batch has been fully processed.
+     *
+     * @param channel The channel which has been read from
+     */
+    public void trySplice(final Channel channel) {
+        final boolean client2Proxy = channel == this.proxyConnection.getC2P();
+        if (client2Proxy ? this.c2pSpliced : this.p2sSpliced) return;
+        if (this.spliceFailed) return;
+        if (!channel.config().isAutoRead()) return; // Packets might still be queued in the flow control handlers
+        boolean startedSplicing = false;
+        if (!this.splicing) {
+            if (!this.canSplice()) return;
+            this.splicing = true;
+            startedSplicing = true;
+            SPLICED_CONNECTIONS.increment();
+            Logger.u_info("session", this.proxyConnection, "Splicing connection");
+        }
+
+        final Channel peer = client2Proxy ? this.proxyConnection.getChannel() : this.proxyConnection.getC2P();
+        final SpliceHandler spliceHandler = new SpliceHandler(peer);
+        try {
+            // The frame decoder forwards its buffered bytes to the replacement, so nothing gets lost
+            channel.pipeline().replace(MCPipeline.SIZER_HANDLER_NAME, SPLICE_HANDLER_NAME, spliceHandler);
+        } catch (Throwable e) { // The pipeline is unchanged, so the connection keeps being forwarded packet by packet
+            Logger.LOGGER.error("Failed to splice connection", e);
+            if (startedSplicing) {
+                this.splicing = false;
+            }
+            this.spliceFailed = true;
+            return;
+        }
+        if (TransportUtil.canSpliceNatively(channel, peer)) {
+            // The bytes buffered by the frame decoder have to reach the peer before the kernel takes over, otherwise they could get reordered
+            ChannelUtil.disableAutoRead(channel);
+            spliceHandler.flushPeer().addListener(f -> {
+                try {
+                    if (f.isSuccess() && channel.isOpen() && peer.isOpen()) {
+                        TransportUtil.spliceTo(channel, peer);
+                    }
+                } catch (Throwable e) { // The splice handler keeps forwarding the bytes in user space
+                    Logger.LOGGER.error("Failed to splice connection on the transport level", e);
+                } finally {
+                    ChannelUtil.restoreAutoRead(channel);
+                }
+            });
+        }
+
+        final boolean peerSpliced;
+        if (client2Proxy) {
+            this.c2pSpliced = true;
+            peerSpliced = this.c2pPeerSpliced;
+        } else {
+            this.p2sSpliced = true;
+            peerSpliced = this.p2sPeerSpliced;
+        }
+        if (peerSpliced) {
+            stripPipeline(channel);
+        }
+        peer.eventLoop().execute(() -> this.onPeerSpliced(peer, !client2Proxy)); // Runs after all packets of this direction have been encoded
+    }
+
+    private void onPeerSpliced(final Channel channel, final boolean client2Proxy) {
+        final boolean spliced;
+        if (client2Proxy) {
+            this.c2pPeerSpliced = true;
+            spliced = this.c2pSpliced;
+        } else {
+            this.p2sPeerSpliced = true;
+            spliced = this.p2sSpliced;
+        }
+        if (spliced && channel.isOpen()) {
+            stripPipeline(channel);
+        }
+    }
+
+    public boolean isSplicing() {
+        return this.splicing;
+    }
+
+    private boolean canSplice() {
+        if (this.proxyConnection.isClosed()) return false;
+        if (this.proxyConnection.getC2pConnectionState() != ConnectionState.PLAY || this.proxyConnection.getP2sConnectionState() != ConnectionState.PLAY) return false;
+
+        final Channel c2p = this.proxyConnection.getC2P();
+        final Channel p2s = this.proxyConnection.getChannel();
+        if (EncryptionCodec.isEnabled(c2p) || EncryptionCodec.isEnabled(p2s)) return false;
+        if (!Objects.equals(c2p.attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).get(), p2s.attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).get())) return false;
+        if (c2p.pipeline().get(MCPipeline.SIZER_HANDLER_NAME) == null || p2s.pipeline().get(MCPipeline.SIZER_HANDLER_NAME) == null) return false;
+
+        for (PacketHandler packetHandler : this.proxyConnection.getPacketHandlers()) {
+            if (!packetHandler.allowsSplicing()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void stripPipeline(final Channel channel) {
+        final ChannelPipeline pipeline = channel.pipeline();
+        final ChannelHandler lastHandler = pipeline.last();
+        final List<String> names = pipeline.names();
+        for (int i = names.indexOf(SPLICE_HANDLER_NAME) + 1; i < names.size(); i++) {
+            final ChannelHandler handler = pipeline.get(names.get(i));
+            if (handler != null && handler != lastHandler) {
+                pipeline.remove(handler);
+            }
+        }
+    }
+
+    private static class SpliceHandler extends ChannelDuplexHandler {
+
+        private final Channel peer;
+        private ChannelHandlerContext peerContext;
+
+        private SpliceHandler(final Channel peer) {
+            this.peer = peer;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof ByteBuf buf) {
+                if (!buf.isReadable()) {
+                    buf.release();
+                    return;
+                }
+                final ChannelHandlerContext peerContext = this.getPeerContext();
+                if (peerContext == null) { // The other channel has been closed already
+                    buf.release();
+                    ctx.close();
+                    return;
+                }
+                SPLICED_BYTES.add(buf.readableBytes());
+                peerContext.write(buf).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            } else {
+                ctx.fireChannelRead(msg);
+            }
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            final ChannelHandlerContext peerContext = this.getPeerContext();
+            if (peerContext != null) {
+                peerContext.flush();
+            }
+            ctx.fireChannelReadComplete();
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            if (msg instanceof ByteBuf buf) { // Frame the packets of the other direction until the pipeline gets stripped
+                final ByteBuf framed = ctx.alloc().buffer(buf.readableBytes() + 5);
+                try {
+                    PacketTypes.writeVarInt(framed, buf.readableBytes());
+                    framed.writeBytes(buf);
+                } catch (Throwable e) {
+                    framed.release();
+                    throw e;
+                } finally {
+                    buf.release();
+                }
+                ctx.write(framed, promise);
+            } else {
+                ctx.write(msg, promise);
+            }
+        }
+
+        /**
+         * Flushes the bytes which have been written to the other channel so far.
+         *
+         * @return A future which completes once all previously written bytes have been flushed
+         */
+        private ChannelFuture flushPeer() {
+            final ChannelHandlerContext peerContext = this.getPeerContext();
+            if (peerContext == null) {
+                return this.peer.newFailedFuture(new ClosedChannelException());
+            }
+            return peerContext.writeAndFlush(Unpooled.EMPTY_BUFFER);
+        }
+
+        /**
+         * @return The context of the frame handler of the other channel. Writing to it bypasses the codec handlers of the other channel.
+         */
+        private ChannelHandlerContext getPeerContext() {
+            if (this.peerContext == null || this.peerContext.isRemoved()) {
+                this.peerContext = this.peer.pipeline().context(SPLICE_HANDLER_NAME);
+                if (this.peerContext == null) {
+                    this.peerContext = this.peer.pipeline().context(MCPipeline.SIZER_HANDLER_NAME);
+                }
+            }
+            return this.peerContext;
+        }
+
+    }
+
+}
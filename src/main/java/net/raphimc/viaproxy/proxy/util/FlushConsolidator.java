@@ -0,0 +1,122 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundInvoker;
+import io.netty.channel.ChannelPromise;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.util.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Forwards packets to a channel and consolidates the flushes of one inbound read batch into a single flush.<br>
+ * The unflushed bytes are counted after encoding by a handler at the head of the pipeline of the channel.<br>
+ * Instances are not thread safe and must only be used from the event loop of the channel which reads the forwarded packets.
+ */
+public class FlushConsolidator {
+
+    public static final String BYTE_COUNTER_HANDLER_NAME = "viaproxy-flush-byte-counter";
+
+    private static final LongAdder FLUSHES = Metrics.counter("forward.flushes");
+    private static final LongAdder FLUSHED_PACKETS = Metrics.counter("forward.flushed_packets");
+
+    private final Channel channel;
+    private final boolean enabled;
+    private final int maxPendingBytes;
+    private final ByteCounter byteCounter;
+    private int pendingPackets;
+    private long flushedBytes;
+
+    public FlushConsolidator(final Channel channel) {
+        this.channel = channel;
+        this.enabled = ViaProxy.getConfig().shouldConsolidateFlushes();
+        this.maxPendingBytes = ViaProxy.getConfig().getFlushConsolidationMaxPendingBytes();
+        this.byteCounter = new ByteCounter();
+        if (this.enabled) {
+            channel.pipeline().addFirst(BYTE_COUNTER_HANDLER_NAME, this.byteCounter);
+        }
+    }
+
+    public ChannelFuture write(final Object msg) {
+        return this.doWrite(this.channel, msg);
+    }
+
+    /**
+     * Writes the message starting at the given handler context of the channel. This allows bypassing the handlers which come after it.
+     *
+     * @param ctx The handler context of the channel
+     * @param msg The message to write
+     * @return The future of the write operation
+     */
+    public ChannelFuture write(final ChannelHandlerContext ctx, final Object msg) {
+        return this.doWrite(ctx, msg);
+    }
+
+    private ChannelFuture doWrite(final ChannelOutboundInvoker outboundInvoker, final Object msg) {
+        if (!this.enabled) {
+            FLUSHES.increment();
+            FLUSHED_PACKETS.increment();
+            return outboundInvoker.writeAndFlush(msg);
+        }
+
+        final ChannelFuture future = outboundInvoker.write(msg);
+        this.pendingPackets++;
+        if (this.byteCounter.writtenBytes - this.flushedBytes >= this.maxPendingBytes || !this.channel.isWritable()) {
+            this.flush();
+        }
+        return future;
+    }
+
+    public void flush() {
+        if (this.pendingPackets > 0) {
+            FLUSHES.increment();
+            FLUSHED_PACKETS.add(this.pendingPackets);
+            this.pendingPackets = 0;
+            this.flushedBytes = this.byteCounter.writtenBytes;
+            this.channel.flush();
+        }
+    }
+
+    public Channel getChannel() {
+        return this.channel;
+    }
+
+    /**
+     * Counts the encoded bytes which are written to the channel. If the forwarding thread isn't the event loop of the channel, the count lags behind until the writes have been processed.
+     */
+    private static class ByteCounter extends ChannelOutboundHandlerAdapter {
+
+        private volatile long writtenBytes;
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (msg instanceof ByteBuf buf) {
+                this.writtenBytes += buf.readableBytes(); // Only modified by the event loop of the channel
+            }
+            super.write(ctx, msg, promise);
+        }
+
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.util.Metrics;
+import net.raphimc.viaproxy.util.logging.Logger;
+import org.apache.logging.log4j.Level;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closes connections which haven't received any data or couldn't get rid of their outbound data for longer than the timeout of their current connection state.<br>
+ * The checks of all connections are scheduled on a single timer wheel and are only rescheduled when they fire. The checks themselves run on the event loop of the channel.<br>
+ * The read timeout is suspended while reading from the channel is disabled.
+ */
+public class IdleReaper extends ChannelDuplexHandler {
+
+    public static final String IDLE_REAPER_HANDLER_NAME = "viaproxy-idle-reaper";
+
+    private static final HashedWheelTimer TIMER = new HashedWheelTimer(new ThreadFactoryBuilder().setNameFormat("ViaProxy Idle Reaper").setDaemon(true).build(), 1, TimeUnit.SECONDS, 128);
+    private static final long DISABLED_RECHECK_DELAY = TimeUnit.SECONDS.toNanos(5);
+    private static final LongAdder READ_TIMEOUTS = Metrics.counter("idle.read_timeouts");
+    private static final LongAdder WRITE_TIMEOUTS = Metrics.counter("idle.write_timeouts");
+
+    private final boolean client2Proxy;
+    private long lastReadTime;
+    private long unwritableSince = -1;
+    private Timeout timeout;
+    private boolean removed;
+
+    public IdleReaper(final boolean client2Proxy) {
+        this.client2Proxy = client2Proxy;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        if (ctx.channel().isActive()) {
+            this.start(ctx.channel());
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        this.stop();
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        this.start(ctx.channel());
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        this.stop();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        this.lastReadTime = System.nanoTime();
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        this.unwritableSince = ctx.channel().isWritable() ? -1 : System.nanoTime();
+        super.channelWritabilityChanged(ctx);
+    }
+
+    private void start(final Channel channel) {
+        if (this.timeout != null || this.removed) return;
+
+        this.lastReadTime = System.nanoTime();
+        final long readTimeout = this.getReadTimeout(channel);
+        this.schedule(channel, readTimeout > 0 ? readTimeout : DISABLED_RECHECK_DELAY);
+    }
+
+    private void stop() {
+        this.removed = true;
+        if (this.timeout != null) {
+            this.timeout.cancel();
+        }
+    }
+
+    private void schedule(final Channel channel, final long delay) {
+        this.timeout = TIMER.newTimeout(t -> channel.eventLoop().execute(() -> this.check(channel)), delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void check(final Channel channel) {
+        if (this.removed || !channel.isOpen()) return;
+
+        final ProxyConnection proxyConnection = ProxyConnection.fromChannel(channel);
+        final boolean spliced = proxyConnection != null && proxyConnection.getConnectionSplicer() != null && proxyConnection.getConnectionSplicer().isSplicing();
+        final long now = System.nanoTime();
+        long nextCheck = DISABLED_RECHECK_DELAY;
+
+        if (!channel.config().isAutoRead()) { // Reads are intentionally paused, so the connection isn't idle
+            this.lastReadTime = now;
+        }
+
+        final long readTimeout = this.getReadTimeout(channel);
+        if (readTimeout > 0 && !spliced) { // Spliced data bypasses the pipeline
+            final long idleTime = now - this.lastReadTime;
+            if (idleTime >= readTimeout) {
+                READ_TIMEOUTS.increment();
+                this.reap(channel, proxyConnection, "No data received for " + TimeUnit.NANOSECONDS.toSeconds(idleTime) + "s");
+                return;
+            }
+            nextCheck = Math.min(nextCheck, readTimeout - idleTime);
+        }
+
+        final long writeTimeout = TimeUnit.SECONDS.toNanos(ViaProxy.getConfig().getWriteTimeout());
+        if (channel.isWritable()) { // The writability change event might not have been fired yet
+            this.unwritableSince = -1;
+        }
+        final long unwritableSince = this.unwritableSince;
+        if (writeTimeout > 0 && unwritableSince != -1 && !spliced) {
+            final long stuckTime = now - unwritableSince;
+            if (stuckTime >= writeTimeout) {
+                WRITE_TIMEOUTS.increment();
+                this.reap(channel, proxyConnection, "No data sent for " + TimeUnit.NANOSECONDS.toSeconds(stuckTime) + "s");
+                return;
+            }
+            nextCheck = Math.min(nextCheck, writeTimeout - stuckTime);
+        }
+
+        this.schedule(channel, nextCheck);
+    }
+
+    private void reap(final Channel channel, final ProxyConnection proxyConnection, final String reason) {
+        final String side = this.client2Proxy ? "client" : "server";
+        if (proxyConnection != null) {
+            Logger.u_info("idle", proxyConnection, "Closing idle " + side + " connection: " + reason);
+        } else {
+            Logger.u_log(Level.INFO, "idle", channel.remoteAddress(), null, "Closing idle " + side + " connection: " + reason);
+        }
+        channel.close();
+    }
+
+    private long getReadTimeout(final Channel channel) {
+        final ProxyConnection proxyConnection = ProxyConnection.fromChannel(channel);
+        ConnectionState connectionState = ConnectionState.HANDSHAKING;
+        if (proxyConnection != null) {
+            connectionState = this.client2Proxy ? proxyConnection.getC2pConnectionState() : proxyConnection.getP2sConnectionState();
+        }
+
+        final int timeout = switch (connectionState) {
+            case HANDSHAKING, STATUS -> ViaProxy.getConfig().getIdleTimeoutStatus();
+            case LOGIN, CONFIGURATION -> ViaProxy.getConfig().getIdleTimeoutLogin();
+            default -> ViaProxy.getConfig().getIdleTimeoutPlay();
+        };
+        return timeout > 0 ? TimeUnit.SECONDS.toNanos(timeout) : 0;
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time spent in each step of the backend login.
+ */
+public class LoginTimer {
+
+    private final Map<String, Long> steps = new LinkedHashMap<>();
+    private long lastStepTime = System.nanoTime();
+
+    /**
+     * Marks the end of a step. The duration of the step is the time since the end of the previous step.
+     *
+     * @param step The name of the step
+     */
+    public synchronized void mark(final String step) {
+        final long now = System.nanoTime();
+        this.steps.put(step, TimeUnit.NANOSECONDS.toMillis(now - this.lastStepTime));
+        this.lastStepTime = now;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final StringJoiner joiner = new StringJoiner(", ");
+        this.steps.forEach((step, millis) -> joiner.add(step + ": " + millis + "ms"));
+        return joiner.toString();
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.packet.PacketTypes;
+import net.raphimc.netminecraft.packet.UnknownPacket;
+import net.raphimc.viaproxy.proxy.packethandler.PacketDispatcher;
+import net.raphimc.viaproxy.proxy.session.ProxyConnection;
+import net.raphimc.viaproxy.util.Metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Inflater;
+
+/**
+ * Forwards PLAY state frames as opaque buffers if the client and server versions are identical.<br>
+ * The first frame of every packet id is decoded normally to learn whether the id maps to a packet class or to an {@link UnknownPacket} which isn't routed to any packet handler.
+ * Only frames of the latter kind are forwarded without decoding them.<br>
+ * If both channels use the same compression threshold, the frames are forwarded before they get decompressed, so they don't have to be compressed again.
+ */
+public class RawPacketForwarder {
+
+    public static final String FRAME_HANDLER_NAME = "viaproxy-raw-forwarder";
+    public static final String COMPRESSED_FRAME_HANDLER_NAME = "viaproxy-raw-forwarder-compressed";
+    public static final String CLASSIFIER_HANDLER_NAME = "viaproxy-raw-forwarder-classifier";
+
+    private static final LongAdder RAW_PACKETS = Metrics.counter("forward.raw_packets");
+    private static final LongAdder RAW_COMPRESSED_PACKETS = Metrics.counter("forward.raw_compressed_packets");
+
+    private static final byte UNCLASSIFIED = 0;
+    private static final byte FORWARD = 1;
+    private static final byte DECODE = 2;
+
+    private final ProxyConnection proxyConnection;
+    private final boolean client2Proxy;
+    private final byte[] classifications = new byte[256];
+    private PacketDispatcher packetDispatcher;
+    private int pendingPacketId = -1;
+
+    private RawPacketForwarder(final ProxyConnection proxyConnection, final boolean client2Proxy) {
+        this.proxyConnection = proxyConnection;
+        this.client2Proxy = client2Proxy;
+    }
+
+    public static void install(final Channel channel, final ProxyConnection proxyConnection, final boolean client2Proxy) {
+        final RawPacketForwarder forwarder = new RawPacketForwarder(proxyConnection, client2Proxy);
+        channel.pipeline().addAfter(MCPipeline.SIZER_HANDLER_NAME, COMPRESSED_FRAME_HANDLER_NAME, forwarder.new CompressedFrameHandler());
+        channel.pipeline().addBefore(MCPipeline.PACKET_CODEC_HANDLER_NAME, FRAME_HANDLER_NAME, forwarder.new FrameHandler());
+        channel.pipeline().addAfter(MCPipeline.PACKET_CODEC_HANDLER_NAME, CLASSIFIER_HANDLER_NAME, forwarder.new ClassifierHandler());
+    }
+
+    private boolean isPlayState() {
+        return this.proxyConnection.getC2pConnectionState() == ConnectionState.PLAY && this.proxyConnection.getP2sConnectionState() == ConnectionState.PLAY;
+    }
+
+    private PacketDispatcher getPacketDispatcher() {
+        final PacketDispatcher packetDispatcher = this.proxyConnection.getPacketDispatcher();
+        if (packetDispatcher != this.packetDispatcher) { // Packet handlers changed, so the routes might have changed too
+            Arrays.fill(this.classifications, UNCLASSIFIED);
+            this.packetDispatcher = packetDispatcher;
+        }
+        return packetDispatcher;
+    }
+
+    private static int peekPacketId(final ByteBuf buf) {
+        final int readerIndex = buf.readerIndex();
+        try {
+            return PacketTypes.readVarInt(buf);
+        } catch (Throwable e) {
+            return -1;
+        } finally {
+            buf.readerIndex(readerIndex);
+        }
+    }
+
+    private class CompressedFrameHandler extends ChannelInboundHandlerAdapter {
+
+        private final Inflater inflater = new Inflater();
+        private final byte[] packetIdBuffer = new byte[5];
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (msg instanceof ByteBuf buf && isPlayState() && !proxyConnection.isClosed()) {
+                final Channel peer = client2Proxy ? proxyConnection.getChannel() : proxyConnection.getC2P();
+                final Integer compressionThreshold = ctx.channel().attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).get();
+                if (compressionThreshold != null && compressionThreshold >= 0 && compressionThreshold.equals(peer.attr(MCPipeline.COMPRESSION_THRESHOLD_ATTRIBUTE_KEY).get())) {
+                    final int packetId = this.peekCompressedPacketId(buf);
+                    if (packetId >= 0 && packetId < classifications.length) {
+                        getPacketDispatcher();
+                        final ChannelHandlerContext peerCompressionContext = peer.pipeline().context(MCPipeline.COMPRESSION_HANDLER_NAME);
+                        if (classifications[packetId] == FORWARD && peerCompressionContext != null) {
+                            RAW_COMPRESSED_PACKETS.increment();
+                            final FlushConsolidator flusher = client2Proxy ? proxyConnection.getP2sFlushConsolidator() : proxyConnection.getC2pFlushConsolidator();
+                            flusher.write(peerCompressionContext, buf).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE); // Bypasses the compression of the other channel
+                            if (!ctx.channel().config().isAutoRead()) {
+                                flusher.flush();
+                            }
+                            return;
+                        }
+                    }
+                }
+            }
+
+            super.channelRead(ctx, msg);
+        }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) {
+            this.inflater.end();
+        }
+
+        /**
+         * Reads the packet id of a compressed frame by only inflating the first few bytes.
+         */
+        private int peekCompressedPacketId(final ByteBuf buf) {
+            final int readerIndex = buf.readerIndex();
+            try {
+                final int uncompressedLength = PacketTypes.readVarInt(buf);
+                if (uncompressedLength == 0) {
+                    return PacketTypes.readVarInt(buf);
+                }
+
+                this.inflater.reset();
+                this.inflater.setInput(buf.nioBuffer());
+                final int inflatedBytes = this.inflater.inflate(this.packetIdBuffer);
+                int packetId = 0;
+                for (int i = 0; i < inflatedBytes; i++) {
+                    final byte b = this.packetIdBuffer[i];
+                    packetId |= (b & 0x7F) << (i * 7);
+                    if ((b & 0x80) == 0) {
+                        return packetId;
+                    }
+                }
+                return -1;
+            } catch (Throwable e) {
+                return -1;
+            } finally {
+                buf.readerIndex(readerIndex);
+            }
+        }
+
+    }
+
+    private class FrameHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (msg instanceof ByteBuf buf && isPlayState() && !proxyConnection.isClosed()) {
+                final int packetId = peekPacketId(buf);
+                if (packetId >= 0 && packetId < classifications.length) {
+                    getPacketDispatcher();
+                    if (classifications[packetId] == FORWARD) {
+                        RAW_PACKETS.increment();
+                        final FlushConsolidator flusher = client2Proxy ? proxyConnection.getP2sFlushConsolidator() : proxyConnection.getC2pFlushConsolidator();
+                        flusher.write(buf).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+                        if (!ctx.channel().config().isAutoRead()) {
+                            flusher.flush();
+                        }
+                        return;
+                    } else if (classifications[packetId] == UNCLASSIFIED) {
+                        pendingPacketId = packetId;
+                    }
+                }
+            }
+
+            super.channelRead(ctx, msg);
+        }
+
+    }
+
+    private class ClassifierHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (pendingPacketId != -1) {
+                if (msg instanceof UnknownPacket unknownPacket && unknownPacket.packetId == pendingPacketId) {
+                    final PacketDispatcher packetDispatcher = getPacketDispatcher();
+                    final int routedHandlers = client2Proxy ? packetDispatcher.getC2PHandlers(unknownPacket, ConnectionState.PLAY).length : packetDispatcher.getP2SHandlers(unknownPacket, ConnectionState.PLAY).length;
+                    classifications[pendingPacketId] = routedHandlers == 0 ? FORWARD : DECODE;
+                } else {
+                    classifications[pendingPacketId] = DECODE;
+                }
+                pendingPacketId = -1;
+            }
+
+            super.channelRead(ctx, msg);
+        }
+
+    }
+
+}
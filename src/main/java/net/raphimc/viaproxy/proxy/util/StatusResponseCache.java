@@ -0,0 +1,90 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import com.google.common.net.HostAndPort;
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.stubs.BedrockProtocolVersion;
+import net.raphimc.viaproxy.util.Metrics;
+
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the status responses sent to clients, so that server list pings can be answered without connecting to the backend server.<br>
+ * The cached responses already contain all modifications made by ViaProxy (e.g. the custom MOTD).
+ */
+public class StatusResponseCache {
+
+    private static final int MAX_CACHE_SIZE = 1024;
+    private static final Map<Key, Entry> CACHE = new ConcurrentHashMap<>();
+    private static final LongAdder CACHE_HITS = Metrics.counter("status_cache.hits");
+    private static final LongAdder CACHE_MISSES = Metrics.counter("status_cache.misses");
+
+    /**
+     * @return The cached status response json or null if there is no valid cached response
+     */
+    public static String get(final SocketAddress serverAddress, final ProtocolVersion serverVersion, final ProtocolVersion clientVersion, final HostAndPort clientHandshakeAddress) {
+        if (!isCacheable(serverVersion, clientVersion)) return null;
+
+        final Entry entry = CACHE.get(new Key(serverAddress, serverVersion, clientVersion, getVirtualHost(clientHandshakeAddress)));
+        if (entry != null && System.nanoTime() - entry.time < getTtl()) {
+            CACHE_HITS.increment();
+            return entry.statusJson;
+        }
+        CACHE_MISSES.increment();
+        return null;
+    }
+
+    public static void put(final SocketAddress serverAddress, final ProtocolVersion serverVersion, final ProtocolVersion clientVersion, final HostAndPort clientHandshakeAddress, final String statusJson) {
+        if (!isCacheable(serverVersion, clientVersion)) return;
+
+        final long now = System.nanoTime();
+        if (CACHE.size() >= MAX_CACHE_SIZE) {
+            final long ttl = getTtl();
+            CACHE.values().removeIf(entry -> now - entry.time >= ttl);
+        }
+        CACHE.put(new Key(serverAddress, serverVersion, clientVersion, getVirtualHost(clientHandshakeAddress)), new Entry(statusJson, now));
+    }
+
+    private static boolean isCacheable(final ProtocolVersion serverVersion, final ProtocolVersion clientVersion) {
+        return ViaProxy.getConfig().getStatusCacheTtl() > 0 && clientVersion.newerThanOrEqualTo(ProtocolVersion.v1_7_1) && !serverVersion.equals(BedrockProtocolVersion.bedrockLatest);
+    }
+
+    private static long getTtl() {
+        return TimeUnit.SECONDS.toNanos(ViaProxy.getConfig().getStatusCacheTtl());
+    }
+
+    private static String getVirtualHost(final HostAndPort clientHandshakeAddress) {
+        if (ViaProxy.getConfig().shouldRewriteHandshakePacket() || clientHandshakeAddress == null) { // The backend server always sees the same address
+            return null;
+        }
+        return clientHandshakeAddress.getHost().toLowerCase();
+    }
+
+    private record Key(SocketAddress serverAddress, ProtocolVersion serverVersion, ProtocolVersion clientVersion, String virtualHost) {
+    }
+
+    private record Entry(String statusJson, long time) {
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+/**
+ * A simple token bucket which allows bursts of up to one second worth of tokens.
+ */
+public class TokenBucket {
+
+    private double tokens = -1;
+    private long lastRefill = System.nanoTime();
+
+    /**
+     * Tries to take a token from the bucket.
+     *
+     * @param tokensPerSecond The refill rate and capacity of the bucket
+     * @return true if a token was available
+     */
+    public synchronized boolean tryTake(final int tokensPerSecond) {
+        final long now = System.nanoTime();
+        if (this.tokens < 0) {
+            this.tokens = tokensPerSecond;
+        } else {
+            this.tokens = Math.min(tokensPerSecond, this.tokens + (now - this.lastRefill) / 1_000_000_000D * tokensPerSecond);
+        }
+        this.lastRefill = now;
+
+        if (this.tokens < 1) {
+            return false;
+        }
+        this.tokens--;
+        return true;
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.proxy.util;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.AbstractEpollStreamChannel;
+import net.raphimc.netminecraft.util.TransportType;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.protocoltranslator.viaproxy.ViaProxyConfig;
+import net.raphimc.viaproxy.util.Metrics;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TransportUtil {
+
+    private static final LongAdder COLOCATED_CONNECTIONS = Metrics.counter("backend.colocated");
+    private static final LongAdder SEPARATE_CONNECTIONS = Metrics.counter("backend.separate_event_loop");
+    private static final LongAdder NATIVE_SPLICES = Metrics.counter("splice.native");
+
+    /**
+     * @param address The address which should be bound or connected to
+     * @return The transport type configured in the ViaProxy config or the best available one
+     */
+    public static TransportType getTransportType(final SocketAddress address) {
+        final ViaProxyConfig.TransportMode transportMode = ViaProxy.getConfig().getTransportMode();
+        if (transportMode == ViaProxyConfig.TransportMode.AUTO || !(address instanceof InetSocketAddress)) {
+            return TransportType.getBest(address);
+        } else if (!transportMode.isAvailable()) {
+            Logger.LOGGER.warn("The " + transportMode.name().toLowerCase() + " transport is not available on this system. Falling back to the best available transport.");
+            return TransportType.getBest(address);
+        } else {
+            return transportMode.getTransportType();
+        }
+    }
+
+    /**
+     * Registers a backend channel on the event loop of the client channel if enabled in the config.
+     *
+     * @param bootstrap          The bootstrap of the backend connection (Will be cloned)
+     * @param transportType      The transport type of the backend connection
+     * @param c2p                The client channel
+     * @param channelInitializer The channel initializer of the backend connection
+     * @return The registration future or null if the channel couldn't be registered on the event loop of the client channel
+     */
+    public static ChannelFuture registerColocated(final Bootstrap bootstrap, final TransportType transportType, final Channel c2p, final ChannelHandler channelInitializer) {
+        if (ViaProxy.getConfig().shouldColocateBackendConnections()) { // Handle both channels on the same thread to avoid cross thread handoffs for every packet
+            final ChannelFuture channelFuture = bootstrap.clone()
+                    .group(c2p.eventLoop())
+                    .channel(transportType.tcpClientChannelClass())
+                    .option(ChannelOption.TCP_NODELAY, true)
+                    .option(ChannelOption.IP_TOS, 0x18)
+                    .handler(channelInitializer)
+                    .register().awaitUninterruptibly();
+            if (channelFuture.isSuccess()) {
+                COLOCATED_CONNECTIONS.increment();
+                return channelFuture;
+            }
+            Logger.LOGGER.debug("Failed to register backend channel on the client event loop", channelFuture.cause()); // Different transport types
+        }
+        SEPARATE_CONNECTIONS.increment();
+        return null;
+    }
+
+    /**
+     * Forwards all future bytes read from one channel to the other channel using splice(2) if both channels are epoll channels on the same event loop.<br>
+     * Bytes which have already been read are not affected and have to be forwarded by the caller.
+     *
+     * @param from The channel to read from
+     * @param to   The channel to write to
+     * @return Whether the bytes are spliced by the kernel
+     */
+    public static boolean spliceTo(final Channel from, final Channel to) {
+        if (canSpliceNatively(from, to)) {
+            ((AbstractEpollStreamChannel) from).spliceTo((AbstractEpollStreamChannel) to, Integer.MAX_VALUE).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+            NATIVE_SPLICES.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param from The channel to read from
+     * @param to   The channel to write to
+     * @return Whether {@link #spliceTo(Channel, Channel)} would splice the bytes in the kernel
+     */
+    public static boolean canSpliceNatively(final Channel from, final Channel to) {
+        return from instanceof AbstractEpollStreamChannel && to instanceof AbstractEpollStreamChannel && from.eventLoop() == to.eventLoop();
+    }
+
+}
@@ -17,6 +17,9 @@
  */
 package net.raphimc.viaproxy.saves;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -27,74 +30,130 @@ import net.raphimc.viaproxy.saves.impl.UISave;
 import net.raphimc.viaproxy.util.logging.Logger;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SaveManager {
 
     private static final File SAVE_FILE = new File(ViaProxy.getCwd(), "saves.json");
+    private static final File TEMP_SAVE_FILE = new File(ViaProxy.getCwd(), "saves.json.tmp");
     private static final Gson GSON = new Gson();
 
+    private final ScheduledExecutorService saveExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("ViaProxy Save").setDaemon(true).build());
+    private final AtomicBoolean savePending = new AtomicBoolean(false);
+    private final List<AbstractSave> saves;
+    private HashCode lastSaveHash;
+
     public final AccountsSaveV3 accountsSave = new AccountsSaveV3();
     public final UISave uiSave = new UISave();
 
     public SaveManager() {
+        final List<AbstractSave> saves = new ArrayList<>();
+        RStream
+                .of(this)
+                .fields()
+                .filter(field -> AbstractSave.class.isAssignableFrom(field.type()))
+                .forEach(field -> saves.add(field.get()));
+        this.saves = Collections.unmodifiableList(saves);
+
         try {
             if (!SAVE_FILE.exists()) {
-                SAVE_FILE.createNewFile();
                 this.save();
             }
 
-            final FileReader reader = new FileReader(SAVE_FILE);
-            final JsonObject saveObject = GSON.fromJson(reader, JsonObject.class);
-            reader.close();
+            final byte[] saveBytes = Files.readAllBytes(SAVE_FILE.toPath());
+            this.lastSaveHash = Hashing.sha256().hashBytes(saveBytes);
+            final JsonObject saveObject = GSON.fromJson(new String(saveBytes, StandardCharsets.UTF_8), JsonObject.class);
 
             SaveMigrator.migrate(saveObject);
 
-            RStream
-                    .of(this)
-                    .fields()
-                    .filter(field -> AbstractSave.class.isAssignableFrom(field.type()))
-                    .forEach(field -> {
-                        final AbstractSave save = field.get();
-                        try {
-                            if (saveObject.has(save.getName())) {
-                                save.load(saveObject.get(save.getName()));
-                            }
-                        } catch (Throwable e) {
-                            Logger.LOGGER.error("Failed to load save " + save.getName(), e);
-                        }
-                    });
+            for (AbstractSave save : this.saves) {
+                try {
+                    if (saveObject.has(save.getName())) {
+                        save.load(saveObject.get(save.getName()));
+                    }
+                } catch (Throwable e) {
+                    Logger.LOGGER.error("Failed to load save " + save.getName(), e);
+                }
+            }
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (this.savePending.get()) {
+                    this.save();
+                }
+            }, "ViaProxy Save Shutdown"));
         } catch (Throwable e) {
             throw new RuntimeException("Failed to initialize SaveManager", e);
         }
     }
 
-    public void save() {
+    /**
+     * Saves the saves to the file on a background thread. Multiple calls within the configured save delay are merged into a single write.
+     */
+    public void scheduleSave() {
+        if (this.savePending.compareAndSet(false, true)) {
+            final long saveDelay = ViaProxy.getConfig() != null ? Math.max(0, ViaProxy.getConfig().getSaveDelay()) : 1000L;
+            this.saveExecutor.schedule(() -> {
+                this.savePending.set(false);
+                this.save();
+            }, saveDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void save() {
         try {
             final JsonObject saveObject = new JsonObject();
-            RStream
-                    .of(this)
-                    .fields()
-                    .filter(field -> AbstractSave.class.isAssignableFrom(field.type()))
-                    .forEach(field -> {
-                        final AbstractSave save = field.get();
-                        try {
-                            final JsonElement saveData = save.save();
-                            if (saveData != null) {
-                                saveObject.add(save.getName(), saveData);
-                            }
-                        } catch (Throwable e) {
-                            Logger.LOGGER.error("Failed to save save " + save.getName(), e);
-                        }
-                    });
-
-            final FileWriter writer = new FileWriter(SAVE_FILE);
-            GSON.toJson(saveObject, writer);
-            writer.close();
+            for (AbstractSave save : this.saves) {
+                try {
+                    final JsonElement saveData = save.save();
+                    if (saveData != null) {
+                        saveObject.add(save.getName(), saveData);
+                    }
+                } catch (Throwable e) {
+                    Logger.LOGGER.error("Failed to save save " + save.getName(), e);
+                }
+            }
+
+            final byte[] saveBytes = GSON.toJson(saveObject).getBytes(StandardCharsets.UTF_8);
+            final HashCode saveHash = Hashing.sha256().hashBytes(saveBytes);
+            if (saveHash.equals(this.lastSaveHash)) {
+                return;
+            }
+            this.writeAtomically(saveBytes);
+            this.lastSaveHash = saveHash;
         } catch (Throwable e) {
             Logger.LOGGER.error("Failed to save saves to file", e);
         }
     }
 
+    private void writeAtomically(final byte[] bytes) throws IOException {
+        final Path tempPath = TEMP_SAVE_FILE.toPath();
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(tempPath, SAVE_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, SAVE_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
 }
@@ -17,23 +17,33 @@
  */
 package net.raphimc.viaproxy.saves.impl;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import net.lenni0451.reflect.Classes;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.plugins.ViaProxyPlugin;
+import net.raphimc.viaproxy.proxy.external_interface.AuthExecutor;
 import net.raphimc.viaproxy.saves.AbstractSave;
 import net.raphimc.viaproxy.saves.impl.accounts.Account;
 import net.raphimc.viaproxy.saves.impl.accounts.OfflineAccount;
+import net.raphimc.viaproxy.util.logging.Logger;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class AccountsSaveV3 extends AbstractSave {
 
-    private List<Account> accounts = new ArrayList<>();
+    private List<Account> accounts = new CopyOnWriteArrayList<>();
+    private final Map<Account, RefreshLock> refreshLocks = new ConcurrentHashMap<>();
 
     public AccountsSaveV3() {
         super("accountsV3");
@@ -45,15 +55,16 @@ public class AccountsSaveV3 extends AbstractSave {
         classLoaders.add(ViaProxy.class.getClassLoader());
         classLoaders.addAll(ViaProxy.getPluginManager().getPlugins().stream().map(ViaProxyPlugin::getClassLoader).toList());
 
-        this.accounts = new ArrayList<>();
+        final List<Account> accounts = new ArrayList<>();
         for (JsonElement element : jsonElement.getAsJsonArray()) {
             final JsonObject jsonObject = element.getAsJsonObject();
             final String type = jsonObject.get("accountType").getAsString();
             final Class<?> clazz = Classes.find(type, true, classLoaders);
 
             final Account account = (Account) clazz.getConstructor(JsonObject.class).newInstance(jsonObject);
-            this.accounts.add(account);
+            accounts.add(account);
         }
+        this.accounts = new CopyOnWriteArrayList<>(accounts);
     }
 
     @Override
@@ -88,15 +99,64 @@ public class AccountsSaveV3 extends AbstractSave {
     }
 
     public void ensureRefreshed(final Account account) throws Throwable {
-        synchronized (this) {
-            if (account.refresh()) {
-                ViaProxy.getSaveManager().save();
+        // Refreshes run on virtual threads, so a ReentrantLock is used to avoid pinning the carrier thread while waiting for the refresh
+        final RefreshLock refreshLock = this.refreshLocks.compute(account, (a, lock) -> {
+            if (lock == null) {
+                lock = new RefreshLock();
             }
+            lock.users++;
+            return lock;
+        });
+        try {
+            refreshLock.lock.lock();
+            try {
+                if (account.refresh()) {
+                    ViaProxy.getSaveManager().scheduleSave();
+                }
+            } finally {
+                refreshLock.lock.unlock();
+            }
+        } finally {
+            this.refreshLocks.computeIfPresent(account, (a, lock) -> --lock.users == 0 ? null : lock);
         }
     }
 
+    /**
+     * Periodically refreshes expired account sessions in the background, so that logins don't have to wait for the refresh.
+     */
+    public void startBackgroundRefresh() {
+        final int interval = ViaProxy.getConfig().getAccountRefreshInterval();
+        if (interval <= 0) return;
+
+        Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("ViaProxy Account Refresh").setDaemon(true).build()).scheduleWithFixedDelay(() -> {
+            for (Account account : this.accounts) {
+                if (!account.needsRefresh()) continue;
+
+                AuthExecutor.supply(() -> {
+                    this.ensureRefreshed(account);
+                    return null;
+                }).whenComplete((result, e) -> {
+                    if (e != null) {
+                        Logger.LOGGER.warn("Failed to refresh account " + account.getDisplayString() + " in the background", e);
+                    }
+                });
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
     public List<Account> getAccounts() {
         return Collections.unmodifiableList(this.accounts);
     }
 
+    /**
+     * Lock which is removed from the lock map once no thread is using it anymore.<br>
+     * The user count is only modified inside of the map's compute methods.
+     */
+    private static class RefreshLock {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private int users;
+
+    }
+
 }
@@ -19,12 +19,10 @@ package net.raphimc.viaproxy.saves.impl;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import net.raphimc.viaproxy.saves.AbstractSave;
 
-import javax.swing.*;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class UISave extends AbstractSave {
 
@@ -33,7 +31,7 @@ public class UISave extends AbstractSave {
     public UISave() {
         super("ui");
 
-        this.values = new HashMap<>();
+        this.values = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -57,64 +55,4 @@ public class UISave extends AbstractSave {
         return this.values.get(key);
     }
 
-    public void loadTextField(final String key, final JTextField textField) {
-        if (this.values.containsKey(key)) {
-            try {
-                String value = this.values.get(key);
-                if (value != null) textField.setText(value);
-            } catch (Throwable ignored) {
-            }
-        }
-    }
-
-    public void loadComboBox(final String key, final JComboBox<?> comboBox) {
-        if (this.values.containsKey(key)) {
-            try {
-                int index = Integer.parseInt(this.values.get(key));
-                if (index >= 0 && index < comboBox.getItemCount()) comboBox.setSelectedIndex(index);
-            } catch (Throwable ignored) {
-            }
-        }
-    }
-
-    public void loadComboBoxProtocolVersion(final String key, final JComboBox<ProtocolVersion> comboBox) {
-        if (this.values.containsKey(key)) {
-            try {
-                String value = this.values.get(key);
-                ProtocolVersion version = ProtocolVersion.getClosest(value);
-                if (version != null) {
-                    comboBox.setSelectedItem(version);
-                }
-            } catch (Throwable ignored) {
-            }
-        }
-    }
-
-    public void loadSpinner(final String key, final JSpinner spinner) {
-        if (this.values.containsKey(key)) {
-            try {
-                Integer value = Integer.valueOf(this.values.get(key));
-                if (spinner.getModel() instanceof SpinnerNumberModel) {
-                    SpinnerNumberModel model = (SpinnerNumberModel) spinner.getModel();
-                    Comparable<Integer> minimum = (Comparable<Integer>) model.getMinimum();
-                    Comparable<Integer> maximum = (Comparable<Integer>) model.getMaximum();
-                    if (minimum.compareTo(value) <= 0 && maximum.compareTo(value) >= 0) spinner.setValue(value);
-                } else {
-                    spinner.setValue(value);
-                }
-            } catch (Throwable ignored) {
-            }
-        }
-    }
-
-    public void loadCheckBox(final String key, final JCheckBox checkBox) {
-        if (this.values.containsKey(key)) {
-            try {
-                boolean value = Boolean.parseBoolean(this.values.get(key));
-                checkBox.setSelected(value);
-            } catch (Throwable ignored) {
-            }
-        }
-    }
-
 }
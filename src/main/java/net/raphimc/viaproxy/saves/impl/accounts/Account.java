@@ -19,8 +19,10 @@ package net.raphimc.viaproxy.saves.impl.accounts;
 
 import com.google.gson.JsonObject;
 import com.mojang.authlib.GameProfile;
+import net.raphimc.viaproxy.ViaProxy;
 
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public abstract class Account {
 
@@ -41,6 +43,13 @@ public abstract class Account {
 
     public abstract String getDisplayString();
 
+    /**
+     * @return true if the session is expired or expires before the next background refresh would run
+     */
+    public boolean needsRefresh() {
+        return false;
+    }
+
     public boolean refresh() throws Exception {
         if (System.currentTimeMillis() - this.lastRefresh < 10_000L) {
             return false;
@@ -49,4 +58,16 @@ public abstract class Account {
         return true;
     }
 
+    /**
+     * Checks whether a token expires soon enough that it should be refreshed in the background already.<br>
+     * The margin covers two background refresh intervals, so the token is renewed at least one interval before it expires.
+     *
+     * @param expireTimeMs The expiry time of the token
+     * @return true if the token expires within the refresh margin
+     */
+    protected static boolean expiresSoon(final long expireTimeMs) {
+        final long refreshMargin = Math.max(TimeUnit.MINUTES.toMillis(5), TimeUnit.SECONDS.toMillis(ViaProxy.getConfig().getAccountRefreshInterval()) * 2);
+        return expireTimeMs - System.currentTimeMillis() < refreshMargin;
+    }
+
 }
@@ -37,7 +37,7 @@ public class BedrockAccount extends Account {
             .sisuTitleAuthentication(MicrosoftConstants.BEDROCK_XSTS_RELYING_PARTY)
             .buildMinecraftBedrockChainStep(true, true);
 
-    private StepFullBedrockSession.FullBedrockSession bedrockSession;
+    private volatile StepFullBedrockSession.FullBedrockSession bedrockSession;
 
     public BedrockAccount(final JsonObject jsonObject) {
         this.bedrockSession = DEVICE_CODE_LOGIN.fromJson(jsonObject.getAsJsonObject("bedrockSession"));
@@ -81,6 +81,15 @@ public class BedrockAccount extends Account {
         return this.getName() + " (Bedrock)";
     }
 
+    @Override
+    public boolean needsRefresh() {
+        final StepFullBedrockSession.FullBedrockSession bedrockSession = this.bedrockSession;
+        if (bedrockSession.isExpiredOrOutdated() || expiresSoon(bedrockSession.getMcChain().getXblXsts().getExpireTimeMs()) || expiresSoon(bedrockSession.getPlayFabToken().getExpireTimeMs())) {
+            return true;
+        }
+        return bedrockSession.getRealmsXsts() != null && expiresSoon(bedrockSession.getRealmsXsts().getExpireTimeMs());
+    }
+
     @Override
     public boolean refresh() throws Exception {
         if (!super.refresh()) return false;
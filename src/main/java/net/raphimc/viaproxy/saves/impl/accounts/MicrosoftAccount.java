@@ -36,7 +36,7 @@ public class MicrosoftAccount extends Account {
             .sisuTitleAuthentication(MicrosoftConstants.JAVA_XSTS_RELYING_PARTY)
             .buildMinecraftJavaProfileStep(true);
 
-    private StepFullJavaSession.FullJavaSession javaSession;
+    private volatile StepFullJavaSession.FullJavaSession javaSession;
 
     public MicrosoftAccount(final JsonObject jsonObject) {
         this.javaSession = DEVICE_CODE_LOGIN.fromJson(jsonObject.getAsJsonObject("javaSession"));
@@ -76,6 +76,15 @@ public class MicrosoftAccount extends Account {
         return this.getName() + " (Microsoft)";
     }
 
+    @Override
+    public boolean needsRefresh() {
+        final StepFullJavaSession.FullJavaSession javaSession = this.javaSession;
+        if (javaSession.isExpiredOrOutdated() || expiresSoon(javaSession.getMcProfile().getMcToken().getExpireTimeMs())) {
+            return true;
+        }
+        return javaSession.getPlayerCertificates() != null && expiresSoon(javaSession.getPlayerCertificates().getExpireTimeMs());
+    }
+
     @Override
     public boolean refresh() throws Exception {
         if (!super.refresh()) return false;
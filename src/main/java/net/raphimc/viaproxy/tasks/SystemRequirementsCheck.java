@@ -17,17 +17,16 @@
  */
 package net.raphimc.viaproxy.tasks;
 
+import net.raphimc.viaproxy.ui.ViaProxyUI;
 import net.raphimc.viaproxy.util.logging.Logger;
 
-import javax.swing.*;
-
 public class SystemRequirementsCheck {
 
     public static void run(final boolean hasUI) {
         if ("32".equals(System.getProperty("sun.arch.data.model")) && Runtime.getRuntime().maxMemory() < 256 * 1024 * 1024) {
             Logger.LOGGER.fatal("ViaProxy is not able to run on 32-Bit Java. Please install 64-Bit Java.");
             if (hasUI) {
-                JOptionPane.showMessageDialog(null, "ViaProxy is not able to run on 32-Bit Java. Please install 64-Bit Java.", "ViaProxy", JOptionPane.ERROR_MESSAGE);
+                ViaProxyUI.showError("ViaProxy is not able to run on 32-Bit Java. Please install 64-Bit Java.");
             }
             System.exit(1);
         }
@@ -35,13 +34,13 @@ public class SystemRequirementsCheck {
         if (Runtime.getRuntime().maxMemory() < 256 * 1024 * 1024) {
             Logger.LOGGER.fatal("ViaProxy is not able to run with less than 256MB of RAM.");
             if (hasUI) {
-                JOptionPane.showMessageDialog(null, "ViaProxy is not able to run with less than 256MB of RAM.", "ViaProxy", JOptionPane.ERROR_MESSAGE);
+                ViaProxyUI.showError("ViaProxy is not able to run with less than 256MB of RAM.");
             }
             System.exit(1);
         } else if (Runtime.getRuntime().maxMemory() < 512 * 1024 * 1024) {
             Logger.LOGGER.warn("ViaProxy has less than 512MB of RAM. This may cause issues with multiple clients connected.");
             if (hasUI) {
-                JOptionPane.showMessageDialog(null, "ViaProxy has less than 512MB of RAM. This may cause issues with multiple clients connected.", "ViaProxy", JOptionPane.WARNING_MESSAGE);
+                ViaProxyUI.showWarning("ViaProxy has less than 512MB of RAM. This may cause issues with multiple clients connected.");
             }
         }
     }
@@ -109,7 +109,7 @@ public class I18n {
 
         currentLocale = locale;
         ViaProxy.getSaveManager().uiSave.put("locale", locale);
-        ViaProxy.getSaveManager().save();
+        ViaProxy.getSaveManager().scheduleSave();
     }
 
     public static Collection<String> getAvailableLocales() {
@@ -0,0 +1,92 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.ui;
+
+import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import net.raphimc.viaproxy.ViaProxy;
+
+import javax.swing.*;
+
+/**
+ * Restores the state of UI elements from the values stored in {@link net.raphimc.viaproxy.saves.impl.UISave}.
+ */
+public class UISaveLoader {
+
+    public static void loadTextField(final String key, final JTextField textField) {
+        final String value = ViaProxy.getSaveManager().uiSave.get(key);
+        if (value != null) {
+            try {
+                textField.setText(value);
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+    public static void loadComboBox(final String key, final JComboBox<?> comboBox) {
+        final String value = ViaProxy.getSaveManager().uiSave.get(key);
+        if (value != null) {
+            try {
+                int index = Integer.parseInt(value);
+                if (index >= 0 && index < comboBox.getItemCount()) comboBox.setSelectedIndex(index);
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+    public static void loadComboBoxProtocolVersion(final String key, final JComboBox<ProtocolVersion> comboBox) {
+        final String value = ViaProxy.getSaveManager().uiSave.get(key);
+        if (value != null) {
+            try {
+                ProtocolVersion version = ProtocolVersion.getClosest(value);
+                if (version != null) {
+                    comboBox.setSelectedItem(version);
+                }
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+    public static void loadSpinner(final String key, final JSpinner spinner) {
+        final String value = ViaProxy.getSaveManager().uiSave.get(key);
+        if (value != null) {
+            try {
+                Integer intValue = Integer.valueOf(value);
+                if (spinner.getModel() instanceof SpinnerNumberModel) {
+                    SpinnerNumberModel model = (SpinnerNumberModel) spinner.getModel();
+                    Comparable<Integer> minimum = (Comparable<Integer>) model.getMinimum();
+                    Comparable<Integer> maximum = (Comparable<Integer>) model.getMaximum();
+                    if (minimum.compareTo(intValue) <= 0 && maximum.compareTo(intValue) >= 0) spinner.setValue(intValue);
+                } else {
+                    spinner.setValue(intValue);
+                }
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+    public static void loadCheckBox(final String key, final JCheckBox checkBox) {
+        final String value = ViaProxy.getSaveManager().uiSave.get(key);
+        if (value != null) {
+            try {
+                checkBox.setSelected(Boolean.parseBoolean(value));
+            } catch (Throwable ignored) {
+            }
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.ui;
+
+import net.raphimc.viaproxy.ui.popups.DownloadPopup;
+import net.raphimc.viaproxy.util.JarUtil;
+import net.raphimc.viaproxy.util.logging.Logger;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.Consumer;
+
+import static net.raphimc.viaproxy.ViaProxy.VERSION;
+
+/**
+ * Entry point for everything UI related. This is the only class the startup code references, so Swing/AWT is never loaded when running in CLI or config mode.
+ */
+public class ViaProxyUI {
+
+    private static SplashScreen splashScreen;
+    private static ViaProxyWindow viaProxyWindow;
+    private static JFrame foregroundWindow;
+
+    public static boolean isAvailable() {
+        return !GraphicsEnvironment.isHeadless();
+    }
+
+    public static Consumer<String> showSplashScreen(final int steps) throws IOException {
+        final float progressStep = 1F / steps;
+        final SplashScreen splashScreen = new SplashScreen();
+        foregroundWindow = ViaProxyUI.splashScreen = splashScreen;
+        Thread.setDefaultUncaughtExceptionHandler((t, e) -> {
+            ViaProxyWindow.showException(e);
+            System.exit(1);
+        });
+        return text -> {
+            splashScreen.setProgress(splashScreen.getProgress() + progressStep);
+            splashScreen.setText(text);
+        };
+    }
+
+    public static void openWindow(final Consumer<String> progressConsumer) throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                foregroundWindow = viaProxyWindow = new ViaProxyWindow();
+                progressConsumer.accept("Done");
+                splashScreen.dispose();
+                splashScreen = null;
+            } catch (Throwable e) {
+                Logger.LOGGER.fatal("Failed to initialize UI", e);
+                System.exit(1);
+            }
+        });
+    }
+
+    public static void showUpdateWarning(final String latestVersion) {
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(foregroundWindow, I18n.get("popup.update.info", VERSION, latestVersion), "ViaProxy", JOptionPane.WARNING_MESSAGE));
+    }
+
+    public static void showUpdateQuestion(final String name, final String downloadUrl, final String latestVersion) {
+        SwingUtilities.invokeLater(() -> {
+            int chosen = JOptionPane.showConfirmDialog(foregroundWindow, I18n.get("popup.update.info", VERSION, latestVersion) + "\n\n" + I18n.get("popup.update.question"), "ViaProxy", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+            if (chosen == JOptionPane.YES_OPTION) {
+                final File f = new File(JarUtil.getJarFile().map(File::getParentFile).orElseThrow(), name);
+                new DownloadPopup(foregroundWindow, downloadUrl, f, () -> SwingUtilities.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(foregroundWindow, I18n.get("popup.update.success"), "ViaProxy", JOptionPane.INFORMATION_MESSAGE);
+                    try {
+                        JarUtil.launch(f);
+                        System.exit(0);
+                    } catch (Throwable e) {
+                        Logger.LOGGER.error("Could not start the new ViaProxy jar", e);
+                        ViaProxyWindow.showException(e);
+                    }
+                }), t -> {
+                    if (t != null) {
+                        Logger.LOGGER.error("Could not download the latest version of ViaProxy", t);
+                        ViaProxyWindow.showException(t);
+                    }
+                });
+            }
+        });
+    }
+
+    public static void showWarning(final String message) {
+        ViaProxyWindow.showWarning(message);
+    }
+
+    public static void showError(final String message) {
+        ViaProxyWindow.showError(message);
+    }
+
+    public static ViaProxyWindow getViaProxyWindow() {
+        return viaProxyWindow;
+    }
+
+    public static JFrame getForegroundWindow() {
+        return foregroundWindow;
+    }
+
+}
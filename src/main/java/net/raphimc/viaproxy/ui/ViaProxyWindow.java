@@ -151,7 +151,7 @@ public class ViaProxyWindow extends JFrame {
     }
 
     public static void showNotification(final String message, final int type) {
-        JOptionPane.showMessageDialog(ViaProxy.getForegroundWindow(), message, "ViaProxy", type);
+        JOptionPane.showMessageDialog(ViaProxyUI.getForegroundWindow(), message, "ViaProxy", type);
     }
 
 }
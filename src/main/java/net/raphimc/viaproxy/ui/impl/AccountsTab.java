@@ -124,7 +124,7 @@ public class AccountsTab extends UITab {
                     if (index != -1) {
                         Account removed = model.remove(index);
                         ViaProxy.getSaveManager().accountsSave.removeAccount(removed);
-                        ViaProxy.getSaveManager().save();
+                        ViaProxy.getSaveManager().scheduleSave();
                         if (ViaProxy.getConfig().getAccount() == removed) {
                             if (model.isEmpty()) this.markSelected(-1);
                             else this.markSelected(0);
@@ -163,7 +163,7 @@ public class AccountsTab extends UITab {
                     String username = JOptionPane.showInputDialog(this.viaProxyWindow, I18n.get("tab.accounts.add_offline.enter_username"), I18n.get("tab.accounts.add.title"), JOptionPane.PLAIN_MESSAGE);
                     if (username != null && !username.trim().isEmpty()) {
                         Account account = ViaProxy.getSaveManager().accountsSave.addAccount(username);
-                        ViaProxy.getSaveManager().save();
+                        ViaProxy.getSaveManager().scheduleSave();
                         this.addAccount(account);
                     }
                 });
@@ -243,7 +243,7 @@ public class AccountsTab extends UITab {
 
         ViaProxy.getSaveManager().accountsSave.removeAccount(account);
         ViaProxy.getSaveManager().accountsSave.addAccount(index - 1, account);
-        ViaProxy.getSaveManager().save();
+        ViaProxy.getSaveManager().scheduleSave();
     }
 
     private void moveDown(final int index) {
@@ -257,7 +257,7 @@ public class AccountsTab extends UITab {
 
         ViaProxy.getSaveManager().accountsSave.removeAccount(account);
         ViaProxy.getSaveManager().accountsSave.addAccount(index + 1, account);
-        ViaProxy.getSaveManager().save();
+        ViaProxy.getSaveManager().scheduleSave();
     }
 
     private void handleLogin(final TFunction<Consumer<StepMsaDeviceCode.MsaDeviceCode>, Account> requestHandler) {
@@ -270,7 +270,7 @@ public class AccountsTab extends UITab {
                 SwingUtilities.invokeLater(() -> {
                     this.closePopup();
                     ViaProxy.getSaveManager().accountsSave.addAccount(account);
-                    ViaProxy.getSaveManager().save();
+                    ViaProxy.getSaveManager().scheduleSave();
                     this.addAccount(account);
                     ViaProxyWindow.showInfo(I18n.get("tab.accounts.add.success", account.getName()));
                 });
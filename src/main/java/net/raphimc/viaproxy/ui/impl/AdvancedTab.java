@@ -24,6 +24,7 @@ import net.lenni0451.commons.swing.GBC;
 import net.lenni0451.lambdaevents.EventHandler;
 import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.ui.I18n;
+import net.raphimc.viaproxy.ui.UISaveLoader;
 import net.raphimc.viaproxy.ui.UITab;
 import net.raphimc.viaproxy.ui.ViaProxyWindow;
 import net.raphimc.viaproxy.ui.events.UICloseEvent;
@@ -83,7 +84,7 @@ public class AdvancedTab extends UITab {
             this.bindAddress = new JTextField();
             this.bindAddress.setToolTipText(I18n.get("tab.advanced.bind_address.tooltip"));
             this.bindAddress.setText("0.0.0.0:25568");
-            ViaProxy.getSaveManager().uiSave.loadTextField("bind_address", this.bindAddress);
+            UISaveLoader.loadTextField("bind_address", this.bindAddress);
             GBC.create(body).grid(0, gridy++).weightx(1).insets(0, BORDER_PADDING, 0, BORDER_PADDING).fill(GBC.HORIZONTAL).add(this.bindAddress);
         }
         {
@@ -93,7 +94,7 @@ public class AdvancedTab extends UITab {
 
             this.proxy = new JTextField();
             this.proxy.setToolTipText(I18n.get("tab.advanced.proxy_url.tooltip"));
-            ViaProxy.getSaveManager().uiSave.loadTextField("proxy", this.proxy);
+            UISaveLoader.loadTextField("proxy", this.proxy);
             GBC.create(body).grid(0, gridy++).insets(0, BORDER_PADDING, 0, BORDER_PADDING).fill(GBC.HORIZONTAL).add(this.proxy);
         }
         {
@@ -105,7 +106,7 @@ public class AdvancedTab extends UITab {
         {
             this.legacySkinLoading = new JCheckBox(I18n.get("tab.advanced.legacy_skin_loading.label"));
             this.legacySkinLoading.setToolTipText(I18n.get("tab.advanced.legacy_skin_loading.tooltip"));
-            ViaProxy.getSaveManager().uiSave.loadCheckBox("legacy_skin_loading", this.legacySkinLoading);
+            UISaveLoader.loadCheckBox("legacy_skin_loading", this.legacySkinLoading);
             checkboxes.add(this.legacySkinLoading);
         }
         {
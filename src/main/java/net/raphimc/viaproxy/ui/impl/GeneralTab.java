@@ -28,6 +28,7 @@ import net.raphimc.viaproxy.ViaProxy;
 import net.raphimc.viaproxy.protocoltranslator.viaproxy.ViaProxyConfig;
 import net.raphimc.viaproxy.saves.impl.accounts.ClassicAccount;
 import net.raphimc.viaproxy.ui.I18n;
+import net.raphimc.viaproxy.ui.UISaveLoader;
 import net.raphimc.viaproxy.ui.UITab;
 import net.raphimc.viaproxy.ui.ViaProxyWindow;
 import net.raphimc.viaproxy.ui.elements.LinkLabel;
@@ -102,7 +103,7 @@ public class GeneralTab extends UITab {
 
             this.serverAddress = new JTextField();
             this.serverAddress.setToolTipText(I18n.get("tab.general.server_address.tooltip"));
-            ViaProxy.getSaveManager().uiSave.loadTextField("server_address", this.serverAddress);
+            UISaveLoader.loadTextField("server_address", this.serverAddress);
             GBC.create(body).grid(0, gridy++).weightx(1).insets(0, BORDER_PADDING, 0, BORDER_PADDING).fill(GBC.HORIZONTAL).add(this.serverAddress);
         }
         {
@@ -232,13 +233,13 @@ public class GeneralTab extends UITab {
         }
         if (ViaProxy.getSaveManager().uiSave.get("notice.ban_warning") == null) {
             ViaProxy.getSaveManager().uiSave.put("notice.ban_warning", "true");
-            ViaProxy.getSaveManager().save();
+            ViaProxy.getSaveManager().scheduleSave();
 
             ViaProxyWindow.showWarning("<html><div style='text-align: center;'>" + I18n.get("tab.general.warning.ban_warning.line1") + "<br><b>" + I18n.get("tab.general.warning.risk") + "</b></div></html>");
         }
         if (selectedVersion.equals(BedrockProtocolVersion.bedrockLatest) && ViaProxy.getSaveManager().uiSave.get("notice.bedrock_warning") == null) {
             ViaProxy.getSaveManager().uiSave.put("notice.bedrock_warning", "true");
-            ViaProxy.getSaveManager().save();
+            ViaProxy.getSaveManager().scheduleSave();
 
             ViaProxyWindow.showWarning("<html><div style='text-align: center;'>" + I18n.get("tab.general.warning.bedrock_warning.line1") + "<br><b>" + I18n.get("tab.general.warning.risk") + "</b></div></html>");
         }
@@ -298,7 +299,7 @@ public class GeneralTab extends UITab {
                     this.applyGuiState();
                     this.viaProxyWindow.advancedTab.applyGuiState();
                     ViaProxy.getConfig().save();
-                    ViaProxy.getSaveManager().save();
+                    ViaProxy.getSaveManager().scheduleSave();
                 } catch (Throwable t) {
                     SwingUtilities.invokeLater(() -> ViaProxyWindow.showError(t.getMessage()));
                     throw t;
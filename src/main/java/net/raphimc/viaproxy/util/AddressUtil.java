@@ -21,12 +21,12 @@ import com.google.common.net.HostAndPort;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
 import io.netty.channel.unix.DomainSocketAddress;
 import net.lenni0451.reflect.stream.RStream;
-import net.raphimc.netminecraft.util.MinecraftServerAddress;
 import net.raphimc.viaproxy.stubs.BedrockProtocolVersion;
 import net.raphimc.viaproxy.stubs.LegacyProtocolVersion;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.concurrent.CompletableFuture;
 
 public class AddressUtil {
 
@@ -36,23 +36,25 @@ public class AddressUtil {
 
             return new DomainSocketAddress(filePath);
         } else { // IP Address
-            final HostAndPort hostAndPort = HostAndPort.fromString(serverAddress);
-            if (hostAndPort.getHost().isBlank()) {
-                throw new IllegalArgumentException("Server address cannot be blank");
-            }
-
-            final int port;
-            if (version != null) {
-                port = hostAndPort.getPortOrDefault(getDefaultPort(version));
-            } else {
-                port = hostAndPort.getPort();
-            }
+            final HostAndPort hostAndPort = parseHostAndPort(serverAddress, version);
+            return ServerAddressResolver.resolveBlocking(hostAndPort.getHost(), hostAndPort.getPort(), usesSrvRecords(version));
+        }
+    }
 
-            if (version == null || version.olderThan(LegacyProtocolVersion.r1_3_1tor1_3_2) || version.equals(BedrockProtocolVersion.bedrockLatest)) {
-                return new InetSocketAddress(hostAndPort.getHost(), port);
-            } else {
-                return MinecraftServerAddress.ofResolved(hostAndPort.getHost(), port);
-            }
+    /**
+     * Same as {@link #parse(String, ProtocolVersion)}, but resolves the address without blocking the calling thread.<br>
+     * Syntax errors are thrown immediately.
+     *
+     * @param serverAddress The server address
+     * @param version       The server version or null
+     * @return A future which completes with the resolved address
+     */
+    public static CompletableFuture<SocketAddress> parseAsync(final String serverAddress, final ProtocolVersion version) {
+        if (serverAddress.startsWith("file:///") || serverAddress.startsWith("unix:///")) { // Unix Socket
+            return CompletableFuture.completedFuture(parse(serverAddress, version));
+        } else { // IP Address
+            final HostAndPort hostAndPort = parseHostAndPort(serverAddress, version);
+            return ServerAddressResolver.resolve(hostAndPort.getHost(), hostAndPort.getPort(), usesSrvRecords(version)).thenApply(SocketAddress.class::cast);
         }
     }
 
@@ -74,6 +76,23 @@ public class AddressUtil {
         return 25565;
     }
 
+    private static HostAndPort parseHostAndPort(final String serverAddress, final ProtocolVersion version) {
+        final HostAndPort hostAndPort = HostAndPort.fromString(serverAddress);
+        if (hostAndPort.getHost().isBlank()) {
+            throw new IllegalArgumentException("Server address cannot be blank");
+        }
+
+        if (version != null) {
+            return HostAndPort.fromParts(hostAndPort.getHost(), hostAndPort.getPortOrDefault(getDefaultPort(version)));
+        } else {
+            return HostAndPort.fromParts(hostAndPort.getHost(), hostAndPort.getPort());
+        }
+    }
+
+    private static boolean usesSrvRecords(final ProtocolVersion version) {
+        return version != null && !version.olderThan(LegacyProtocolVersion.r1_3_1tor1_3_2) && !version.equals(BedrockProtocolVersion.bedrockLatest);
+    }
+
     /**
      * Converts the netty domain socket address to a Java 16 unix domain socket address if possible
      *
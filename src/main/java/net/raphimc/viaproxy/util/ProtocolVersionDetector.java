@@ -17,19 +17,174 @@
  */
 package net.raphimc.viaproxy.util;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.viaversion.vialoader.util.ProtocolVersionList;
 import com.viaversion.viaversion.api.protocol.version.ProtocolVersion;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
+import io.netty.util.concurrent.ScheduledFuture;
 import net.lenni0451.mcping.MCPing;
 import net.lenni0451.mcping.pings.sockets.impl.factories.SocketChannelSocketFactory;
 import net.lenni0451.mcping.responses.MCPingResponse;
+import net.raphimc.netminecraft.constants.ConnectionState;
+import net.raphimc.netminecraft.constants.IntendedState;
+import net.raphimc.netminecraft.constants.MCPipeline;
+import net.raphimc.netminecraft.netty.connection.MinecraftChannelInitializer;
+import net.raphimc.netminecraft.packet.Packet;
+import net.raphimc.netminecraft.packet.impl.handshaking.C2SHandshakingClientIntentionPacket;
+import net.raphimc.netminecraft.packet.impl.status.C2SStatusRequestPacket;
+import net.raphimc.netminecraft.packet.impl.status.S2CStatusResponsePacket;
+import net.raphimc.netminecraft.packet.registry.DefaultPacketRegistry;
+import net.raphimc.viaproxy.ViaProxy;
+import net.raphimc.viaproxy.proxy.util.TransportUtil;
+import net.raphimc.viaproxy.util.logging.Logger;
 
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ProtocolVersionDetector {
 
     private static final int TIMEOUT = 3000;
+    private static final int MAX_CACHE_SIZE = 4096;
+    private static final Map<CacheKey, CacheEntry> CACHE = new ConcurrentHashMap<>();
+    private static final LongAdder CACHE_HITS = Metrics.counter("autodetect.cache_hits");
+    private static final LongAdder STALE_CACHE_HITS = Metrics.counter("autodetect.stale_cache_hits");
+    private static final LongAdder CACHE_MISSES = Metrics.counter("autodetect.cache_misses");
+    private static final LongAdder PINGS = Metrics.counter("autodetect.pings");
+    private static final LongAdder FAILED_PINGS = Metrics.counter("autodetect.failed_pings");
+    private static final LongAdder INVALIDATIONS = Metrics.counter("autodetect.invalidations");
 
     public static ProtocolVersion get(final SocketAddress serverAddress, final ProtocolVersion clientVersion) {
+        final ServerVersion serverVersion = pingBlocking(serverAddress, clientVersion);
+        return detect(serverVersion, clientVersion);
+    }
+
+    /**
+     * Detects the server version without blocking the calling thread. The detected versions are cached for the configured time.<br>
+     * Outdated cache entries are still used while they are refreshed in the background.
+     *
+     * @param serverAddress The address of the server
+     * @param clientVersion The version of the client
+     * @param eventLoop     The event loop to ping the server on
+     * @return A future which completes with the detected server version
+     */
+    public static CompletableFuture<ProtocolVersion> getAsync(final SocketAddress serverAddress, final ProtocolVersion clientVersion, final EventLoop eventLoop) {
+        return getServerVersion(serverAddress, clientVersion, eventLoop).thenApply(serverVersion -> detect(serverVersion, clientVersion));
+    }
+
+    /**
+     * Removes all cached versions of the given server.
+     *
+     * @param serverAddress The address of the server
+     */
+    public static void invalidate(final SocketAddress serverAddress) {
+        if (CACHE.keySet().removeIf(key -> key.serverAddress.equals(serverAddress))) {
+            INVALIDATIONS.increment();
+        }
+    }
+
+    private static CompletableFuture<ServerVersion> getServerVersion(final SocketAddress serverAddress, final ProtocolVersion clientVersion, final EventLoop eventLoop) {
+        final long ttl = TimeUnit.SECONDS.toNanos(ViaProxy.getConfig().getAutoDetectCacheTtl());
+        if (ttl <= 0) {
+            return ping(serverAddress, clientVersion, eventLoop);
+        }
+
+        final long now = System.nanoTime();
+        final CacheKey key = new CacheKey(serverAddress, clientVersion.getOriginalVersion());
+        final CacheEntry cached = CACHE.get(key);
+        if (cached != null) {
+            if (!cached.future.isDone() || now - cached.time < ttl) {
+                CACHE_HITS.increment();
+                return cached.future;
+            } else if (!cached.future.isCompletedExceptionally()) { // Use the outdated version while refreshing it
+                STALE_CACHE_HITS.increment();
+                if (cached.refreshing.compareAndSet(false, true)) {
+                    refresh(key, cached, clientVersion, eventLoop);
+                }
+                return cached.future;
+            }
+        }
+
+        CACHE_MISSES.increment();
+        if (CACHE.size() > MAX_CACHE_SIZE) {
+            CACHE.values().removeIf(entry -> entry.future.isDone() && now - entry.time >= ttl);
+        }
+        final CacheEntry entry = new CacheEntry(ping(serverAddress, clientVersion, eventLoop));
+        if (cached != null) {
+            CACHE.replace(key, cached, entry);
+        } else {
+            CACHE.putIfAbsent(key, entry);
+        }
+        entry.future.whenComplete((serverVersion, t) -> {
+            if (t != null) {
+                CACHE.remove(key, entry);
+            }
+        });
+        return entry.future;
+    }
+
+    private static void refresh(final CacheKey key, final CacheEntry cached, final ProtocolVersion clientVersion, final EventLoop eventLoop) {
+        ping(key.serverAddress, clientVersion, eventLoop).whenComplete((serverVersion, t) -> {
+            if (t != null) { // Ping again on the next lookup
+                CACHE.remove(key, cached);
+                return;
+            }
+
+            final CacheEntry refreshed = new CacheEntry(CompletableFuture.completedFuture(serverVersion));
+            if (CACHE.replace(key, cached, refreshed) && cached.future.join().protocol != serverVersion.protocol) { // The server has been updated
+                Logger.LOGGER.info("Server " + AddressUtil.toString(key.serverAddress) + " now reports protocol id " + serverVersion.protocol + " (" + serverVersion.name + ")");
+                CACHE.entrySet().removeIf(entry -> entry.getKey().serverAddress.equals(key.serverAddress) && entry.getValue() != refreshed);
+                INVALIDATIONS.increment();
+            }
+        });
+    }
+
+    private static CompletableFuture<ServerVersion> ping(final SocketAddress serverAddress, final ProtocolVersion clientVersion, final EventLoop eventLoop) {
+        PINGS.increment();
+        final CompletableFuture<ServerVersion> future = new CompletableFuture<>();
+        future.whenComplete((serverVersion, t) -> {
+            if (t != null) {
+                FAILED_PINGS.increment();
+            }
+        });
+        if (!(serverAddress instanceof InetSocketAddress inetSocketAddress)) { // Unix sockets
+            CompletableFuture.runAsync(() -> future.complete(pingBlocking(serverAddress, clientVersion))).exceptionally(t -> {
+                future.completeExceptionally(t.getCause() != null ? t.getCause() : t);
+                return null;
+            });
+            return future;
+        }
+
+        new Bootstrap()
+                .group(eventLoop)
+                .channel(TransportUtil.getTransportType(serverAddress).tcpClientChannelClass())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, TIMEOUT)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new MinecraftChannelInitializer(() -> new StatusPingHandler(inetSocketAddress, clientVersion, future)) {
+                    @Override
+                    protected void initChannel(Channel channel) {
+                        super.initChannel(channel);
+                        channel.attr(MCPipeline.PACKET_REGISTRY_ATTRIBUTE_KEY).set(new DefaultPacketRegistry(true, clientVersion.getVersion()));
+                    }
+                })
+                .connect(serverAddress).addListener((ChannelFutureListener) f -> {
+                    if (!f.isSuccess()) {
+                        future.completeExceptionally(f.cause());
+                    }
+                });
+        return future;
+    }
+
+    private static ServerVersion pingBlocking(final SocketAddress serverAddress, final ProtocolVersion clientVersion) {
         final MCPingResponse response = MCPing
                 .pingModern(clientVersion.getOriginalVersion(), true)
                 .tcpSocketFactory(new SocketChannelSocketFactory())
@@ -37,23 +192,97 @@ public class ProtocolVersionDetector {
                 .noResolve()
                 .timeout(TIMEOUT, TIMEOUT)
                 .getSync();
+        return new ServerVersion(response.version.protocol, response.version.name);
+    }
 
-        if (response.version.protocol == clientVersion.getOriginalVersion()) { // If the server is on the same version as the client, we can just connect
+    private static ProtocolVersion detect(final ServerVersion serverVersion, final ProtocolVersion clientVersion) {
+        if (serverVersion.protocol == clientVersion.getOriginalVersion()) { // If the server is on the same version as the client, we can just connect
             return clientVersion;
         }
 
-        if (ProtocolVersion.isRegistered(response.version.protocol)) { // If the protocol is registered, we can use it
-            return ProtocolVersion.getProtocol(response.version.protocol);
+        if (ProtocolVersion.isRegistered(serverVersion.protocol)) { // If the protocol is registered, we can use it
+            return ProtocolVersion.getProtocol(serverVersion.protocol);
         } else {
             for (ProtocolVersion protocolVersion : ProtocolVersionList.getProtocolsNewToOld()) {
                 for (String version : protocolVersion.getIncludedVersions()) {
-                    if (response.version.name.contains(version)) {
+                    if (serverVersion.name.contains(version)) {
                         return protocolVersion;
                     }
                 }
             }
-            throw new RuntimeException("Unable to detect the server version\nServer sent an invalid protocol id: " + response.version.protocol + " (" + response.version.name + "§r)");
+            throw new RuntimeException("Unable to detect the server version\nServer sent an invalid protocol id: " + serverVersion.protocol + " (" + serverVersion.name + "§r)");
+        }
+    }
+
+    private record ServerVersion(int protocol, String name) {
+    }
+
+    private record CacheKey(SocketAddress serverAddress, int clientProtocol) {
+    }
+
+    private static class CacheEntry {
+
+        private final CompletableFuture<ServerVersion> future;
+        private final long time = System.nanoTime();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private CacheEntry(final CompletableFuture<ServerVersion> future) {
+            this.future = future;
+        }
+
+    }
+
+    private static class StatusPingHandler extends SimpleChannelInboundHandler<Packet> {
+
+        private final InetSocketAddress serverAddress;
+        private final ProtocolVersion clientVersion;
+        private final CompletableFuture<ServerVersion> future;
+        private ScheduledFuture<?> timeoutFuture;
+
+        private StatusPingHandler(final InetSocketAddress serverAddress, final ProtocolVersion clientVersion, final CompletableFuture<ServerVersion> future) {
+            this.serverAddress = serverAddress;
+            this.clientVersion = clientVersion;
+            this.future = future;
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            super.channelActive(ctx);
+
+            this.timeoutFuture = ctx.executor().schedule(() -> {
+                this.future.completeExceptionally(new TimeoutException("Server did not respond to the status request"));
+                ctx.close();
+            }, TIMEOUT, TimeUnit.MILLISECONDS);
+            ctx.write(new C2SHandshakingClientIntentionPacket(this.clientVersion.getOriginalVersion(), this.serverAddress.getHostString(), this.serverAddress.getPort(), IntendedState.STATUS));
+            ctx.channel().attr(MCPipeline.PACKET_REGISTRY_ATTRIBUTE_KEY).get().setConnectionState(ConnectionState.STATUS);
+            ctx.writeAndFlush(new C2SStatusRequestPacket()).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            super.channelInactive(ctx);
+
+            if (this.timeoutFuture != null) {
+                this.timeoutFuture.cancel(false);
+            }
+            this.future.completeExceptionally(new ClosedChannelException());
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, Packet packet) {
+            if (packet instanceof S2CStatusResponsePacket statusResponsePacket) {
+                final JsonObject version = JsonParser.parseString(statusResponsePacket.statusJson).getAsJsonObject().getAsJsonObject("version");
+                this.future.complete(new ServerVersion(version.get("protocol").getAsInt(), version.get("name").getAsString()));
+                ctx.close();
+            }
         }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            this.future.completeExceptionally(cause);
+            ctx.close();
+        }
+
     }
 
 }
@@ -0,0 +1,131 @@
+/*
+ * This file is part of ViaProxy - https://github.com/RaphiMC/ViaProxy
+ * Copyright (C) 2021-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.viaproxy.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.raphimc.netminecraft.util.MinecraftServerAddress;
+import net.raphimc.viaproxy.ViaProxy;
+
+import java.net.InetSocketAddress;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves server addresses (including SRV records) on a dedicated thread pool and caches the results.<br>
+ * Concurrent lookups of the same address share a single resolution.
+ */
+public class ServerAddressResolver {
+
+    private static final int MAX_CACHE_SIZE = 4096;
+    private static final ExecutorService RESOLVER_EXECUTOR = Executors.newFixedThreadPool(4, new ThreadFactoryBuilder().setNameFormat("ViaProxy DNS Resolver %d").setDaemon(true).build());
+    private static final Map<CacheKey, CacheEntry> CACHE = new ConcurrentHashMap<>();
+    private static final LongAdder CACHE_HITS = Metrics.counter("dns.cache_hits");
+    private static final LongAdder CACHE_MISSES = Metrics.counter("dns.cache_misses");
+    private static final LongAdder FAILED_RESOLUTIONS = Metrics.counter("dns.failed_resolutions");
+    private static final LongAdder RESOLUTION_TIME = Metrics.counter("dns.resolution_time_ms");
+
+    static {
+        Metrics.gauge("dns.cache_size", () -> CACHE.size());
+    }
+
+    /**
+     * Resolves the given address asynchronously. The returned future is already completed if the address is cached.<br>
+     * Unresolvable addresses result in an unresolved {@link InetSocketAddress}, just like the blocking resolution does.
+     *
+     * @param host       The host name
+     * @param port       The port
+     * @param srvRecords Whether SRV records should be looked up
+     * @return A future which completes with the resolved address
+     */
+    public static CompletableFuture<InetSocketAddress> resolve(final String host, final int port, final boolean srvRecords) {
+        final CacheKey key = new CacheKey(host.toLowerCase(Locale.ROOT), port, srvRecords);
+        final long now = System.nanoTime();
+        final CacheEntry cached = CACHE.get(key);
+        if (cached != null && (!cached.future.isDone() || cached.expiry - now > 0)) {
+            CACHE_HITS.increment();
+            return cached.future;
+        }
+
+        CACHE_MISSES.increment();
+        if (CACHE.size() > MAX_CACHE_SIZE) {
+            CACHE.values().removeIf(e -> e.future.isDone() && e.expiry - now <= 0);
+        }
+        final CompletableFuture<InetSocketAddress> future = new CompletableFuture<>();
+        final CacheEntry entry = new CacheEntry(future);
+        if (cached != null ? !CACHE.replace(key, cached, entry) : CACHE.putIfAbsent(key, entry) != null) {
+            return resolve(host, port, srvRecords); // Another thread started the resolution in the meantime
+        }
+
+        RESOLVER_EXECUTOR.execute(() -> {
+            final long start = System.nanoTime();
+            try {
+                final InetSocketAddress address = resolveBlocking(host, port, srvRecords);
+                final long ttl = address.isUnresolved() ? ViaProxy.getConfig().getDnsNegativeCacheTtl() : ViaProxy.getConfig().getDnsCacheTtl();
+                if (address.isUnresolved()) {
+                    FAILED_RESOLUTIONS.increment();
+                }
+                entry.expiry = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttl);
+                future.complete(address);
+            } catch (Throwable e) {
+                FAILED_RESOLUTIONS.increment();
+                CACHE.remove(key, entry);
+                future.completeExceptionally(e);
+            } finally {
+                RESOLUTION_TIME.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Resolves the given address on the calling thread without using the cache.
+     *
+     * @param host       The host name
+     * @param port       The port
+     * @param srvRecords Whether SRV records should be looked up
+     * @return The resolved address or an unresolved address if the host could not be resolved
+     */
+    public static InetSocketAddress resolveBlocking(final String host, final int port, final boolean srvRecords) {
+        if (srvRecords) {
+            return MinecraftServerAddress.ofResolved(host, port);
+        } else {
+            return new InetSocketAddress(host, port);
+        }
+    }
+
+    private record CacheKey(String host, int port, boolean srvRecords) {
+    }
+
+    private static class CacheEntry {
+
+        private final CompletableFuture<InetSocketAddress> future;
+        private volatile long expiry;
+
+        private CacheEntry(final CompletableFuture<InetSocketAddress> future) {
+            this.future = future;
+        }
+
+    }
+
+}
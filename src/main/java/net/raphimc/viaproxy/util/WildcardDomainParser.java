@@ -22,6 +22,8 @@ import net.raphimc.viaproxy.protocoltranslator.ProtocolTranslator;
 
 import javax.annotation.Nullable;
 import java.net.SocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,6 +33,38 @@ public class WildcardDomainParser {
 
     @Nullable
     public static ParsedDomain parseFormat1(final String address) {
+        return parseFormat1(address, (connectAddress, serverVersion) -> new ParsedDomain(AddressUtil.parse(connectAddress, serverVersion), serverVersion));
+    }
+
+    /**
+     * Same as {@link #parseFormat1(String)}, but resolves the address without blocking the calling thread.
+     *
+     * @param address The wildcard domain
+     * @return The parsed domain or null if the syntax is invalid
+     */
+    @Nullable
+    public static AsyncParsedDomain parseFormat1Async(final String address) {
+        return parseFormat1(address, (connectAddress, serverVersion) -> new AsyncParsedDomain(AddressUtil.parseAsync(connectAddress, serverVersion), serverVersion));
+    }
+
+    @Nullable
+    public static ParsedDomain parseFormat2(final String address) {
+        return parseFormat2(address, (connectAddress, serverVersion) -> new ParsedDomain(AddressUtil.parse(connectAddress, serverVersion), serverVersion));
+    }
+
+    /**
+     * Same as {@link #parseFormat2(String)}, but resolves the address without blocking the calling thread.
+     *
+     * @param address The wildcard domain
+     * @return The parsed domain or null if the syntax is invalid
+     */
+    @Nullable
+    public static AsyncParsedDomain parseFormat2Async(final String address) {
+        return parseFormat2(address, (connectAddress, serverVersion) -> new AsyncParsedDomain(AddressUtil.parseAsync(connectAddress, serverVersion), serverVersion));
+    }
+
+    @Nullable
+    private static <T> T parseFormat1(final String address, final BiFunction<String, ProtocolVersion, T> domainFactory) {
         try {
             final String addressData = address.substring(0, address.toLowerCase().lastIndexOf(".viaproxy."));
             final ArrayHelper arrayHelper = ArrayHelper.instanceOf(addressData.split(Pattern.quote("_")));
@@ -41,14 +75,14 @@ public class WildcardDomainParser {
             ProtocolVersion serverVersion = ProtocolVersionUtil.fromNameLenient(versionString);
             final String connectAddress = arrayHelper.getAsString(0, arrayHelper.getLength() - 3, "_");
             final int connectPort = arrayHelper.getInteger(arrayHelper.getLength() - 2);
-            return new ParsedDomain(AddressUtil.parse(connectAddress + ":" + connectPort, serverVersion), serverVersion);
+            return domainFactory.apply(connectAddress + ":" + connectPort, serverVersion);
         } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
             return null;
         }
     }
 
     @Nullable
-    public static ParsedDomain parseFormat2(final String address) {
+    private static <T> T parseFormat2(final String address, final BiFunction<String, ProtocolVersion, T> domainFactory) {
         try {
             final String addressData = address.substring(0, address.toLowerCase().lastIndexOf(".f2.viaproxy."));
             final Matcher matcher = PUBLIC_WILDCARD_FORMAT2_PATTERN.matcher(addressData);
@@ -64,7 +98,7 @@ public class WildcardDomainParser {
             } else { // Default to auto-detect
                 serverVersion = ProtocolTranslator.AUTO_DETECT_PROTOCOL;
             }
-            return new ParsedDomain(AddressUtil.parse(connectAddress + ":" + connectPort, serverVersion), serverVersion);
+            return domainFactory.apply(connectAddress + ":" + connectPort, serverVersion);
         } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
             return null;
         }
@@ -74,4 +108,7 @@ public class WildcardDomainParser {
     public record ParsedDomain(SocketAddress address, @Nullable ProtocolVersion version) {
     }
 
+    public record AsyncParsedDomain(CompletableFuture<SocketAddress> address, @Nullable ProtocolVersion version) {
+    }
+
 }